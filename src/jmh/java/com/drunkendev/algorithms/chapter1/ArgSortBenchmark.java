@@ -0,0 +1,117 @@
+/*
+ * ArgSortBenchmark.java    Oct 18 2026, 17:10
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Ordering three parallel columns by one of them, either by sorting record
+ * objects or by argsorting the key column and reordering all three.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ArgSortBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private int[] keys;
+    private long[] values;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        keys = new int[size];
+        values = new long[size];
+        names = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = rnd.nextInt(size);
+            values[i] = rnd.nextLong();
+            names[i] = "n" + i;
+        }
+    }
+
+    @Benchmark
+    public Row[] records() {
+        Row[] rows = new Row[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = new Row(keys[i], values[i], names[i]);
+        }
+        new AppSorting.TopDownMergeSort().sortImpl(rows);
+        return rows;
+    }
+
+    @Benchmark
+    public int[] stable() {
+        int[] k = keys.clone();
+        int[] p = AppSorting.ArgSort.stable(k);
+        AppSorting.ArgSort.reorder(p, k, values.clone(), names.clone());
+        return k;
+    }
+
+    @Benchmark
+    public int[] quick() {
+        int[] k = keys.clone();
+        int[] p = AppSorting.ArgSort.quick(k);
+        AppSorting.ArgSort.reorder(p, k, values.clone(), names.clone());
+        return k;
+    }
+
+
+    static final class Row implements Comparable<Row> {
+
+        final int key;
+        final long value;
+        final String name;
+
+        Row(int key, long value, String name) {
+            this.key = key;
+            this.value = value;
+            this.name = name;
+        }
+
+        @Override
+        public int compareTo(Row o) {
+            return Integer.compare(key, o.key);
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * ConcurrentUnionFindBenchmark.java    Oct 18 2026, 15:37
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.AppUnionFind.UnionFind;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Multi-threaded edge ingestion throughput of
+ * {@link AppUnionFind.ConcurrentUnionFind} against
+ * {@link AppUnionFind.SolutionWeightedQuickUnion} guarded by a lock.
+ *
+ * Each invocation builds a fresh union find and has every producer thread
+ * apply an interleaved share of the same random edge list.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentUnionFindBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"2000000"})
+    public int edges;
+
+    private ExecutorService executor;
+    private int[] ps;
+    private int[] qs;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(threads);
+        Random rnd = new Random(42);
+        ps = new int[edges];
+        qs = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            ps[i] = rnd.nextInt(size);
+            qs[i] = rnd.nextInt(size);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public int lockFree() throws InterruptedException, ExecutionException {
+        UnionFind uf = new AppUnionFind.ConcurrentUnionFind(size);
+        ingest(uf::union);
+        return uf.count();
+    }
+
+    @Benchmark
+    public int locked() throws InterruptedException, ExecutionException {
+        UnionFind uf = new AppUnionFind.SolutionWeightedQuickUnion(size);
+        ingest((p, q) -> {
+            synchronized (uf) {
+                uf.union(p, q);
+            }
+        });
+        return uf.count();
+    }
+
+    private void ingest(Producer producer) throws InterruptedException, ExecutionException {
+        List<Callable<Void>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            tasks.add(() -> {
+                for (int i = offset; i < edges; i += threads) {
+                    producer.apply(ps[i], qs[i]);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> f : executor.invokeAll(tasks)) {
+            f.get();
+        }
+    }
+
+
+    @FunctionalInterface
+    private static interface Producer {
+
+        void apply(int p, int q);
+
+    }
+
+}
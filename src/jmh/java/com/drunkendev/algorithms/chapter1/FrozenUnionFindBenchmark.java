@@ -0,0 +1,163 @@
+/*
+ * FrozenUnionFindBenchmark.java    Oct 18 2026, 21:05
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares {@link AppUnionFind.Frozen} queries and refreshes against the live
+ * union find they are taken from.
+ *
+ * The query benchmarks run on four threads sharing one fully loaded union
+ * find, {@link #liveConnected()} queries it directly while
+ * {@link #frozenConnected()} queries its snapshot. The refresh benchmarks
+ * apply the edges in batches of {@link #batch} and bring labels up to date
+ * after each, {@link #freeze()} incrementally and {@link #relabel()} by
+ * finding every element again.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FrozenUnionFindBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"SolutionWeightedQuickUnion",
+            "SolutionWeightedQuickUnionPathCompression"})
+    public String solution;
+
+    @Param({"mediumUF.txt", "largeUF.txt"})
+    public String file;
+
+    @Param({"1000"})
+    public int batch;
+
+    private AppUnionFind.EdgeList edgeList;
+    private AppUnionFind.UnionFind live;
+    private AppUnionFind.Frozen frozen;
+    private int[] queries;
+
+    @Setup
+    public void setup() throws IOException {
+        edgeList = App.edges(file);
+        AppUnionFind.FreezableUnionFind uf = new AppUnionFind.FreezableUnionFind(
+                AppUnionFind.newSolution(solution, edgeList.size), edgeList.size);
+        uf.unionAll(edgeList.ps, edgeList.qs);
+        live = uf;
+        frozen = uf.freeze();
+        Random rnd = new Random(42);
+        queries = new int[QUERIES * 2];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = rnd.nextInt(edgeList.size);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(QUERIES)
+    public int liveConnected() {
+        AppUnionFind.UnionFind uf = live;
+        int[] qs = queries;
+        int n = 0;
+        for (int i = 0; i < qs.length; i += 2) {
+            if (uf.connected(qs[i], qs[i + 1])) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(QUERIES)
+    public int frozenConnected() {
+        AppUnionFind.Frozen f = frozen;
+        int[] qs = queries;
+        int n = 0;
+        for (int i = 0; i < qs.length; i += 2) {
+            if (f.connected(qs[i], qs[i + 1])) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int freeze() {
+        AppUnionFind.FreezableUnionFind uf = new AppUnionFind.FreezableUnionFind(
+                AppUnionFind.newSolution(solution, edgeList.size), edgeList.size);
+        int[] ps = edgeList.ps;
+        int[] qs = edgeList.qs;
+        AppUnionFind.Frozen f = uf.freeze();
+        for (int lo = 0; lo < ps.length; lo += batch) {
+            int hi = Math.min(lo + batch, ps.length);
+            for (int i = lo; i < hi; i++) {
+                uf.union(ps[i], qs[i]);
+            }
+            f = uf.freeze();
+        }
+        return f.count();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int relabel() {
+        AppUnionFind.UnionFind uf = AppUnionFind.newSolution(solution, edgeList.size);
+        int[] ps = edgeList.ps;
+        int[] qs = edgeList.qs;
+        int[] labels = new int[edgeList.size];
+        for (int lo = 0; lo < ps.length; lo += batch) {
+            int hi = Math.min(lo + batch, ps.length);
+            for (int i = lo; i < hi; i++) {
+                uf.union(ps[i], qs[i]);
+            }
+            labels = new int[edgeList.size];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = uf.find(i);
+            }
+        }
+        return labels[0];
+    }
+
+}
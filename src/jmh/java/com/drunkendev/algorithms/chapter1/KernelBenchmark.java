@@ -0,0 +1,231 @@
+/*
+ * KernelBenchmark.java    Oct 18 2026, 22:45
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Per element cost of the {@link Kernels} next to the scalar code they stand
+ * in for.
+ *
+ * {@link #kernels} picks {@link Kernels#get()}, which is only vectorized when
+ * built with the <code>vector</code> profile on JDK 17 or later, or
+ * {@link Kernels#SCALAR}. The <code>current*</code> benchmarks run the
+ * existing code: {@link AppSorting#isSorted(Comparable[])}, the
+ * {@link AppSorting.PingPongMergeSort} merge and insertion sort and the
+ * {@link AppSorting.QuickSort} partition, and the sorts compare
+ * {@link AppSorting.KernelMergeSort} and {@link AppSorting.KernelQuickSort}
+ * with {@link AppSorting.PingPongMergeSort} and a 3-way
+ * {@link AppSorting.TunedQuickSort}. Timings are per element of a
+ * {@link #SIZE} element array, the sorts are per element of the whole sort.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class KernelBenchmark {
+
+    static final int SIZE = 1 << 16;
+
+    @Param({"selected", "scalar"})
+    public String kernels;
+
+    private Kernels k;
+    private int block;
+    private int[] random;
+    private long[] randomLongs;
+    private int[] sorted;
+    private long[] sortedLongs;
+    private Integer[] boxed;
+    private int[] halves;
+    private long[] longHalves;
+    private int[] work;
+    private long[] longWork;
+    private int[] buf;
+    private long[] longBuf;
+
+    @Setup
+    public void setup() {
+        k = "scalar".equals(kernels) ? Kernels.SCALAR : Kernels.get();
+        block = k.blockSize(new int[0]);
+        Random rnd = new Random(42);
+        random = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            random[i] = rnd.nextInt();
+        }
+        sorted = random.clone();
+        Arrays.sort(sorted);
+        randomLongs = new long[SIZE];
+        sortedLongs = new long[SIZE];
+        boxed = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            randomLongs[i] = random[i];
+            sortedLongs[i] = sorted[i];
+            boxed[i] = sorted[i];
+        }
+        halves = random.clone();
+        Arrays.sort(halves, 0, SIZE / 2);
+        Arrays.sort(halves, SIZE / 2, SIZE);
+        longHalves = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            longHalves[i] = halves[i];
+        }
+        work = new int[SIZE];
+        longWork = new long[SIZE];
+        buf = new int[SIZE];
+        longBuf = new long[SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public boolean currentIsSorted() {
+        return AppSorting.isSorted(boxed);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public boolean isSorted() {
+        return k.isSorted(sorted, 0, SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public boolean isSortedLongs() {
+        return k.isSorted(sortedLongs, 0, SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] currentMerge() {
+        AppSorting.PingPongMergeSort.merge(halves, work, 0, SIZE / 2, SIZE);
+        return work;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] merge() {
+        k.merge(halves, 0, SIZE / 2, SIZE, work);
+        return work;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] mergeLongs() {
+        k.merge(longHalves, 0, SIZE / 2, SIZE, longWork);
+        return longWork;
+    }
+
+    /**
+     * Insertion sort of blocks the same size as the kernel's.
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] currentSortBlocks() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        for (int lo = 0; lo < SIZE; lo += block) {
+            Kernels.Scalar.insertionSort(work, lo, Math.min(lo + block, SIZE));
+        }
+        return work;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] sortBlocks() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        k.sortBlocks(work, 0, SIZE);
+        return work;
+    }
+
+    /**
+     * Both partitions pivot on the first element.
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int currentPartition() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        return AppSorting.QuickSort.partition(work, 0, SIZE - 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int partition() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        return k.partition(work, 0, SIZE, random[0], buf);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int partitionLongs() {
+        System.arraycopy(randomLongs, 0, longWork, 0, SIZE);
+        return k.partition(longWork, 0, SIZE, randomLongs[0], longBuf);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] currentSort() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        new AppSorting.PingPongMergeSort().sortImpl(work);
+        return work;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] sort() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        new AppSorting.KernelMergeSort(k).sortImpl(work);
+        return work;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] currentQuickSort() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        new AppSorting.TunedQuickSort(AppSorting.TunedQuickSort.Partition.THREE_WAY).sortImpl(work);
+        return work;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] quickSort() {
+        System.arraycopy(random, 0, work, 0, SIZE);
+        new AppSorting.KernelQuickSort(k).sortImpl(work);
+        return work;
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * LoaderBenchmark.java    Oct 18 2026, 14:51
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares parsing the UF edge files with line splitting and
+ * {@link Integer#parseInt(String)} against {@link MappedTokenizer} and the
+ * {@link BinaryEdgeFile} encodings, and loading a whole file before building
+ * a union find against overlapping the two with {@link EdgePipeline}.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoaderBenchmark {
+
+    @Param({"mediumUF.txt", "largeUF.txt"})
+    public String file;
+
+    private Path fixed;
+    private Path varint;
+
+    @Setup
+    public void setup() throws IOException {
+        fixed = Files.createTempFile("edges-", ".bin");
+        varint = Files.createTempFile("edges-", ".bin");
+        BinaryEdgeFile.convert(App.dataFile(file), fixed, BinaryEdgeFile.Encoding.FIXED);
+        BinaryEdgeFile.convert(App.dataFile(file), varint, BinaryEdgeFile.Encoding.VARINT);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fixed);
+        Files.deleteIfExists(varint);
+    }
+
+    @Benchmark
+    public long split() throws IOException {
+        long sum = 0;
+        try (BufferedReader r = App.dataReader(file)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                for (String s : line.trim().split("\\s+")) {
+                    sum += Integer.parseInt(s);
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long mapped() throws IOException {
+        long[] sum = new long[1];
+        App.forEachInt(file, v -> sum[0] += v);
+        return sum[0];
+    }
+
+    @Benchmark
+    public long binaryFixed() throws IOException {
+        long[] sum = new long[1];
+        BinaryEdgeFile.forEachEdge(fixed, (p, q) -> sum[0] += p + q);
+        return sum[0];
+    }
+
+    @Benchmark
+    public long binaryVarint() throws IOException {
+        long[] sum = new long[1];
+        BinaryEdgeFile.forEachEdge(varint, (p, q) -> sum[0] += p + q);
+        return sum[0];
+    }
+
+    @Benchmark
+    public int loadThenUnion() throws IOException {
+        AppUnionFind.EdgeList edges = AppUnionFind.EdgeList.load(file);
+        AppUnionFind.UnionFind uf = new AppUnionFind.SolutionWeightedQuickUnionPathCompression(edges.size);
+        uf.unionAll(edges.ps, edges.qs);
+        return uf.count();
+    }
+
+    @Benchmark
+    public int pipelinedUnion() throws IOException {
+        return new EdgePipeline().load(App.dataFile(file), AppUnionFind.SolutionWeightedQuickUnionPathCompression::new)
+                .count();
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * MergeSortBenchmark.java    Oct 18 2026, 17:45
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.Metrics.Counter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * The copying merge sorts against {@link AppSorting.PingPongMergeSort} at a
+ * range of block widths, on random and sorted input.
+ *
+ * Array reads and writes are reported as secondary results alongside the
+ * time when run with <code>-Djmh.args="-jvmArgs -Dalgs4.metrics=true"</code>,
+ * bearing in mind counting slows every sort down.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MergeSortBenchmark {
+
+    @Param({"TopDownMergeSort",
+            "BottomUpMergeSort",
+            "PingPong8",
+            "PingPong32",
+            "PingPong64"})
+    public String name;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED"})
+    public String shape;
+
+    private AppSorting.Sorter sorter;
+    private int[] data;
+
+    @Setup
+    public void setup() {
+        sorter = name.startsWith("PingPong")
+                 ? new AppSorting.PingPongMergeSort(Integer.parseInt(name.substring("PingPong".length())))
+                 : SortingBenchmark.newSorter(name);
+        Random rnd = new Random(42);
+        data = new int[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = "SORTED".equals(shape) ? i : rnd.nextInt();
+        }
+    }
+
+    @Benchmark
+    public int[] sort(Moves moves) {
+        int[] a = data.clone();
+        long before = moves.total();
+        sorter.sortImpl(a);
+        moves.record(before);
+        return a;
+    }
+
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Moves {
+
+        public long moves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            moves = 0;
+        }
+
+        long total() {
+            Metrics.Snapshot s = Metrics.snapshot();
+            return s.get(Counter.ARRAY_READS) + s.get(Counter.ARRAY_WRITES);
+        }
+
+        void record(long before) {
+            moves += total() - before;
+        }
+
+    }
+
+}
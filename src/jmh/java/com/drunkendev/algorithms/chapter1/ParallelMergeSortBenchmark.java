@@ -0,0 +1,88 @@
+/*
+ * ParallelMergeSortBenchmark.java    Oct 18 2026, 10:02
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures how {@link AppSorting.ParallelMergeSort} scales with the number of
+ * worker threads.
+ *
+ * A parallelism of 1 is the sequential baseline, the speedup for N cores is
+ * the score at 1 divided by the score at N.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelMergeSortBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int parallelism;
+
+    @Param({"1000000", "4000000"})
+    public int size;
+
+    @Param({"8192"})
+    public int threshold;
+
+    private ForkJoinPool pool;
+    private AppSorting.Sorter sorter;
+    private Comparable[] data;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool(parallelism);
+        sorter = new AppSorting.ParallelMergeSort(pool, threshold);
+        data = SortingBenchmark.Shape.RANDOM.generate(size, new Random(42));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Comparable[] sort() {
+        Comparable[] a = data.clone();
+        sorter.sortImpl(a);
+        return a;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * PrimitiveSortingBenchmark.java    Oct 18 2026, 11:20
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the boxed {@link Comparable} path of each sorter against its
+ * <code>int[]</code>, <code>long[]</code> and <code>double[]</code> overloads
+ * on the same random values.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PrimitiveSortingBenchmark {
+
+    @Param({"ShellSort",
+            "TopDownMergeSort",
+            "BottomUpMergeSort",
+            "QuickSort"})
+    public String name;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private AppSorting.Sorter sorter;
+    private Integer[] boxed;
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+
+    @Setup
+    public void setup() {
+        sorter = SortingBenchmark.newSorter(name);
+        Random rnd = new Random(42);
+        boxed = new Integer[size];
+        ints = new int[size];
+        longs = new long[size];
+        doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+            int v = rnd.nextInt();
+            boxed[i] = v;
+            ints[i] = v;
+            longs[i] = v;
+            doubles[i] = v;
+        }
+    }
+
+    @Benchmark
+    public Comparable[] boxed() {
+        Comparable[] a = boxed.clone();
+        sorter.sortImpl(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] ints() {
+        int[] a = ints.clone();
+        sorter.sortImpl(a);
+        return a;
+    }
+
+    @Benchmark
+    public long[] longs() {
+        long[] a = longs.clone();
+        sorter.sortImpl(a);
+        return a;
+    }
+
+    @Benchmark
+    public double[] doubles() {
+        double[] a = doubles.clone();
+        sorter.sortImpl(a);
+        return a;
+    }
+
+}
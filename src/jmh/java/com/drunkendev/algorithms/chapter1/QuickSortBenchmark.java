@@ -0,0 +1,94 @@
+/*
+ * QuickSortBenchmark.java    Oct 18 2026, 12:41
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.AppSorting.TunedQuickSort;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Explores the partitioning, pivot selection and cutoff settings of
+ * {@link TunedQuickSort} against the plain {@link AppSorting.QuickSort}.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class QuickSortBenchmark {
+
+    @Param({"THREE_WAY", "DUAL_PIVOT"})
+    public String partition;
+
+    @Param({"FIRST", "MEDIAN_OF_3", "NINTHER"})
+    public String pivot;
+
+    @Param({"0", "10", "20"})
+    public int cutoff;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "DUPLICATES"})
+    public SortingBenchmark.Shape shape;
+
+    private AppSorting.Sorter tuned;
+    private AppSorting.Sorter plain;
+    private Comparable[] data;
+
+    @Setup
+    public void setup() {
+        tuned = new TunedQuickSort(TunedQuickSort.Partition.valueOf(partition),
+                                   TunedQuickSort.Pivot.valueOf(pivot),
+                                   cutoff);
+        plain = new AppSorting.QuickSort();
+        data = shape.generate(size, new Random(42));
+    }
+
+    @Benchmark
+    public Comparable[] tuned() {
+        Comparable[] a = data.clone();
+        tuned.sortImpl(a);
+        return a;
+    }
+
+    @Benchmark
+    public Comparable[] plain() {
+        Comparable[] a = data.clone();
+        plain.sortImpl(a);
+        return a;
+    }
+
+}
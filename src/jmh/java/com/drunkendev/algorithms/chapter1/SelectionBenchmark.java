@@ -0,0 +1,108 @@
+/*
+ * SelectionBenchmark.java    Oct 18 2026, 15:40
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Finding the median and the smallest <code>k</code> of an array by a full
+ * sort, by {@link AppSorting.Selection} and by streaming through a
+ * {@link AppSorting.TopK}.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SelectionBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int k;
+
+    private final AppSorting.Sorter sorter = new AppSorting.TunedQuickSort(AppSorting.TunedQuickSort.Partition.THREE_WAY);
+    private int[] ints;
+    private Integer[] boxed;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        ints = new int[size];
+        boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ints[i] = rnd.nextInt();
+            boxed[i] = ints[i];
+        }
+    }
+
+    @Benchmark
+    public int medianBySort() {
+        int[] a = ints.clone();
+        sorter.sortImpl(a);
+        return a[size / 2];
+    }
+
+    @Benchmark
+    public int medianBySelect() {
+        return AppSorting.Selection.select(ints.clone(), size / 2);
+    }
+
+    @Benchmark
+    public int[] smallestBySort() {
+        int[] a = ints.clone();
+        sorter.sortImpl(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] smallestByPartialSort() {
+        int[] a = ints.clone();
+        AppSorting.Selection.partialSort(a, k);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] smallestByTopK() {
+        AppSorting.TopK<Integer> top = AppSorting.TopK.smallest(k);
+        for (Integer x : boxed) {
+            top.offer(x);
+        }
+        return top.toArray(new Integer[top.size()]);
+    }
+
+}
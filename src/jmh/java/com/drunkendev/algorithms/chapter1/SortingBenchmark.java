@@ -0,0 +1,193 @@
+/*
+ * SortingBenchmark.java    Oct 18 2026, 09:14
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * JMH benchmarks for each {@link AppSorting.Sorter} implementation.
+ *
+ * Each invocation sorts a fresh copy of the input, the copy is part of the
+ * measured time but is linear and the same for every sorter.
+ *
+ * Run with <code>mvn -Pjmh verify</code>.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SortingBenchmark {
+
+    static AppSorting.Sorter newSorter(String name) {
+        switch (name) {
+            case "SelectionSort":
+                return new AppSorting.SelectionSort();
+            case "InsertionSort":
+                return new AppSorting.InsertionSort();
+            case "ShellSort":
+                return new AppSorting.ShellSort();
+            case "TopDownMergeSort":
+                return new AppSorting.TopDownMergeSort();
+            case "BottomUpMergeSort":
+                return new AppSorting.BottomUpMergeSort();
+            case "AdaptiveMergeSort":
+                return new AppSorting.AdaptiveMergeSort();
+            case "PingPongMergeSort":
+                return new AppSorting.PingPongMergeSort();
+            case "ParallelMergeSort":
+                return new AppSorting.ParallelMergeSort();
+            case "QuickSort":
+                return new AppSorting.QuickSort();
+            case "QuickSort3Way":
+                return new AppSorting.TunedQuickSort(AppSorting.TunedQuickSort.Partition.THREE_WAY);
+            case "QuickSortDualPivot":
+                return new AppSorting.TunedQuickSort(AppSorting.TunedQuickSort.Partition.DUAL_PIVOT);
+            default:
+                throw new IllegalArgumentException("Unknown sorter: " + name);
+        }
+    }
+
+    @Benchmark
+    public Comparable[] synthetic(SorterState s, SyntheticInput in) {
+        Comparable[] a = in.data.clone();
+        s.sorter.sortImpl(a);
+        return a;
+    }
+
+    @Benchmark
+    public Comparable[] dataFile(SorterState s, FileInput in) {
+        Comparable[] a = in.data.clone();
+        s.sorter.sortImpl(a);
+        return a;
+    }
+
+
+    @State(Scope.Thread)
+    public static class SorterState {
+
+        @Param({"SelectionSort",
+                "InsertionSort",
+                "ShellSort",
+                "TopDownMergeSort",
+                "BottomUpMergeSort",
+                "AdaptiveMergeSort",
+                "PingPongMergeSort",
+                "ParallelMergeSort",
+                "QuickSort",
+                "QuickSort3Way",
+                "QuickSortDualPivot"})
+        public String name;
+
+        AppSorting.Sorter sorter;
+
+        @Setup
+        public void setup() {
+            sorter = newSorter(name);
+        }
+
+    }
+
+
+    /**
+     * Shapes of generated input.
+     */
+    public static enum Shape {
+
+        RANDOM, SORTED, NEARLY_SORTED, REVERSED, DUPLICATES;
+
+        Integer[] generate(int size, Random rnd) {
+            Integer[] a = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                switch (this) {
+                    case RANDOM:
+                        a[i] = rnd.nextInt();
+                        break;
+                    case SORTED:
+                        a[i] = i;
+                        break;
+                    case NEARLY_SORTED:
+                        a[i] = rnd.nextInt(100) == 0 ? rnd.nextInt(size) : i;
+                        break;
+                    case REVERSED:
+                        a[i] = size - i;
+                        break;
+                    case DUPLICATES:
+                        a[i] = rnd.nextInt(10);
+                        break;
+                }
+            }
+            return a;
+        }
+
+    }
+
+
+    @State(Scope.Thread)
+    public static class SyntheticInput {
+
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        @Param({"RANDOM", "SORTED", "NEARLY_SORTED", "REVERSED", "DUPLICATES"})
+        public Shape shape;
+
+        Comparable[] data;
+
+        @Setup
+        public void setup() {
+            data = shape.generate(size, new Random(42));
+        }
+
+    }
+
+
+    @State(Scope.Thread)
+    public static class FileInput {
+
+        @Param({"tiny.txt", "words3.txt", "tale.txt"})
+        public String file;
+
+        Comparable[] data;
+
+        @Setup
+        public void setup() throws IOException {
+            data = AppSorting.load(file);
+        }
+
+    }
+
+}
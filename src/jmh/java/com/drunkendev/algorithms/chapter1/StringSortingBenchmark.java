@@ -0,0 +1,100 @@
+/*
+ * StringSortingBenchmark.java    Oct 18 2026, 21:08
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * String specialised sorters against the comparison sorters on the algs4
+ * text files.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class StringSortingBenchmark {
+
+    @Param({"LSDStringSort",
+            "MSDStringSort",
+            "Quick3StringSort",
+            "PrefixPackedStringSort",
+            "TopDownMergeSort",
+            "QuickSort",
+            "QuickSort3Way"})
+    public String name;
+
+    @Param({"words3.txt", "tale.txt", "leipzig100K.txt"})
+    public String file;
+
+    private Consumer<String[]> sorter;
+    private String[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        sorter = newSorter(name);
+        data = AppSorting.load(file);
+    }
+
+    @Benchmark
+    public String[] sort() {
+        String[] a = data.clone();
+        sorter.accept(a);
+        return a;
+    }
+
+    /**
+     * A {@link AppSorting.StringSorter} or otherwise a sorter known to
+     * {@link SortingBenchmark#newSorter(String)}.
+     */
+    static Consumer<String[]> newSorter(String name) {
+        switch (name) {
+            case "LSDStringSort":
+                return new AppSorting.LSDStringSort()::sortImpl;
+            case "MSDStringSort":
+                return new AppSorting.MSDStringSort()::sortImpl;
+            case "Quick3StringSort":
+                return new AppSorting.Quick3StringSort()::sortImpl;
+            case "PrefixPackedStringSort":
+                return new AppSorting.PrefixPackedStringSort()::sortImpl;
+            default:
+                AppSorting.Sorter sorter = SortingBenchmark.newSorter(name);
+                return sorter::sortImpl;
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * UnionFindBenchmark.java    Oct 18 2026, 16:22
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Processes the UF data files with each weighted union find solution, see
+ * {@link AppUnionFind#WEIGHTED_SOLUTIONS}.
+ *
+ * Edges are parsed once per trial so only the union find work is measured.
+ * {@link #process()} applies them one at a time as the loaders used to while
+ * {@link #unionAll()} uses the parallel batch path.
+ *
+ * @author  Brett Ryan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UnionFindBenchmark {
+
+    @Param({"SolutionWeightedQuickUnion",
+            "SolutionWeightedQuickUnionPathCompression",
+            "SolutionWeightedQuickUnionPathHalving",
+            "SolutionWeightedQuickUnionPathSplitting",
+            "SolutionRankedQuickUnionPathCompression"})
+    public String solution;
+
+    @Param({"tinyUF.txt", "mediumUF.txt", "largeUF.txt"})
+    public String file;
+
+    private AppUnionFind.EdgeList edgeList;
+
+    @Setup
+    public void setup() throws IOException {
+        edgeList = App.edges(file);
+    }
+
+    @Benchmark
+    public int process() {
+        AppUnionFind.UnionFind uf = AppUnionFind.newSolution(solution, edgeList.size);
+        int[] ps = edgeList.ps;
+        int[] qs = edgeList.qs;
+        for (int i = 0; i < ps.length; i++) {
+            if (!uf.connected(ps[i], qs[i])) {
+                uf.union(ps[i], qs[i]);
+            }
+        }
+        return uf.count();
+    }
+
+    @Benchmark
+    public int unionAll() {
+        AppUnionFind.UnionFind uf = AppUnionFind.newSolution(solution, edgeList.size);
+        uf.unionAll(edgeList.ps, edgeList.qs);
+        return uf.count();
+    }
+
+}
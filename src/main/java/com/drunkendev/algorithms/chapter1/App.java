@@ -26,6 +26,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.function.IntConsumer;
 
 
 /**
@@ -36,6 +37,8 @@ public final class App {
 
     public static final Path DATA_PATH;
 
+    private static final DatasetCache CACHE = DatasetCache.fromSystemProperties();
+
     static {
         DATA_PATH = Paths.get(new File(".").getAbsolutePath(), "target/test-resources/algs4-data/").normalize();
     }
@@ -52,4 +55,36 @@ public final class App {
         return Files.newBufferedReader(dataFile(fileName));
     }
 
+    /**
+     * Scan each whitespace separated token of a data file without creating
+     * intermediate strings, see {@link MappedTokenizer}.
+     */
+    static void forEachToken(String fileName, MappedTokenizer.TokenHandler handler) throws IOException {
+        MappedTokenizer.forEachToken(dataFile(fileName), handler);
+    }
+
+    static void forEachInt(String fileName, IntConsumer consumer) throws IOException {
+        MappedTokenizer.forEachInt(dataFile(fileName), consumer);
+    }
+
+    static int[] readInts(String fileName) throws IOException {
+        return MappedTokenizer.readInts(dataFile(fileName));
+    }
+
+    /**
+     * Tokens of a data file, parsed once and cached, see {@link DatasetCache}.
+     * The array is the caller's own to reorder.
+     */
+    static String[] tokens(String fileName) throws IOException {
+        return CACHE.tokens(fileName);
+    }
+
+    /**
+     * Edges of a UF data file, parsed once and cached, see
+     * {@link DatasetCache}. The edge list is shared and must not be modified.
+     */
+    static AppUnionFind.EdgeList edges(String fileName) throws IOException {
+        return CACHE.edges(fileName);
+    }
+
 }
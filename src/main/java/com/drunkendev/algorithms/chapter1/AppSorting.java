@@ -19,13 +19,14 @@
 
 package com.drunkendev.algorithms.chapter1;
 
+import com.drunkendev.algorithms.chapter1.Metrics.Counter;
 import edu.princeton.cs.algs4.Stopwatch;
 import edu.princeton.cs.introcs.StdRandom;
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.regex.Pattern;
 
 
@@ -35,8 +36,6 @@ import java.util.regex.Pattern;
  */
 public class AppSorting {
 
-    private static int ex;
-
     static {
         ClassLoader.getSystemClassLoader().setDefaultAssertionStatus(true);
     }
@@ -45,32 +44,32 @@ public class AppSorting {
         String[] a = load("tiny.txt");
         new QuickSort().sort(a);
         // Assert not working for NB run-file.
-        System.out.println("Exchange: " + ex);
+        if (Metrics.ENABLED) {
+            System.out.println("Exchange: " + Metrics.snapshot().get(Counter.EXCHANGES));
+        } else {
+            System.out.println("Exchanges not counted, run with -Dalgs4.metrics=true");
+        }
         show(a);
         if (!isSorted(a)) {
             throw new AssertionError("Array is not sorted");
         }
-        ex = 0;
+        Metrics.reset();
         new QuickSort().sort(a);
-        System.out.println("Exchange: " + ex);
+        if (Metrics.ENABLED) {
+            System.out.println("Exchange: " + Metrics.snapshot().get(Counter.EXCHANGES));
+        }
     }
 
-    private static String[] load(String fn) throws IOException {
+    static String[] load(String fn) throws IOException {
 //        In.readStrings();
-        List<String> strings = new ArrayList<>();
-        try (BufferedReader r = App.dataReader(fn)) {
-            String line;
-            while ((line = r.readLine()) != null) {
-                strings.addAll(Arrays.asList(WHITESPACE_PATTERN.split(line)));
-            }
-        }
-        return strings.toArray(new String[strings.size()]);
+        return App.tokens(fn);
     }
 
 //    private static void sort(Comparable[] x, Sorter sorter) {
 //        sorter.sort(x);
 //    }
     private static boolean less(Comparable x, Comparable y) {
+        Metrics.increment(Counter.COMPARES);
         return x.compareTo(y) < 0;
     }
 
@@ -78,7 +77,77 @@ public class AppSorting {
         Comparable temp = a[idx1];
         a[idx1] = a[idx2];
         a[idx2] = temp;
-        ex++;
+        exchanged();
+    }
+
+    private static int compare(Comparable x, Comparable y) {
+        Metrics.increment(Counter.COMPARES);
+        return x.compareTo(y);
+    }
+
+    private static int compare(int x, int y) {
+        Metrics.increment(Counter.COMPARES);
+        return Integer.compare(x, y);
+    }
+
+    private static int compare(long x, long y) {
+        Metrics.increment(Counter.COMPARES);
+        return Long.compare(x, y);
+    }
+
+    private static int compare(double x, double y) {
+        Metrics.increment(Counter.COMPARES);
+        return Double.compare(x, y);
+    }
+
+    private static boolean less(int x, int y) {
+        Metrics.increment(Counter.COMPARES);
+        return x < y;
+    }
+
+    private static boolean less(long x, long y) {
+        Metrics.increment(Counter.COMPARES);
+        return x < y;
+    }
+
+    /**
+     * Uses {@link Double#compare(double, double)} ordering so that
+     * <code>-0.0</code> and <code>NaN</code> sort the same way as
+     * {@link Arrays#sort(double[])}.
+     */
+    private static boolean less(double x, double y) {
+        Metrics.increment(Counter.COMPARES);
+        return Double.compare(x, y) < 0;
+    }
+
+    private static void exch(int[] a, int idx1, int idx2) {
+        int temp = a[idx1];
+        a[idx1] = a[idx2];
+        a[idx2] = temp;
+        exchanged();
+    }
+
+    private static void exch(long[] a, int idx1, int idx2) {
+        long temp = a[idx1];
+        a[idx1] = a[idx2];
+        a[idx2] = temp;
+        exchanged();
+    }
+
+    private static void exch(double[] a, int idx1, int idx2) {
+        double temp = a[idx1];
+        a[idx1] = a[idx2];
+        a[idx2] = temp;
+        exchanged();
+    }
+
+    /**
+     * Records an exchange, two reads and two writes.
+     */
+    private static void exchanged() {
+        Metrics.increment(Counter.EXCHANGES);
+        Metrics.add(Counter.ARRAY_READS, 2);
+        Metrics.add(Counter.ARRAY_WRITES, 2);
     }
 
     private static void show(Comparable[] a) {
@@ -88,7 +157,7 @@ public class AppSorting {
         System.out.println();
     }
 
-    private static boolean isSorted(Comparable[] a) {
+    static boolean isSorted(Comparable[] a) {
         for (int i = 1; i < a.length; i++) {
             if (less(a[i], a[i - 1])) {
                 return false;
@@ -97,36 +166,168 @@ public class AppSorting {
         return true;
     }
 
-    private static final Pattern WHITESPACE_PATTERN
-            = Pattern.compile("\\p{javaWhitespace}+");
+    /**
+     * Uses the {@link Kernels#get() selected kernels}, compares are not
+     * counted.
+     */
+    static boolean isSorted(int[] a) {
+        return Kernels.get().isSorted(a, 0, a.length);
+    }
+
+    static boolean isSorted(long[] a) {
+        return Kernels.get().isSorted(a, 0, a.length);
+    }
+
+    /**
+     * Prints the time and counts of one sort. The timer is stopped here,
+     * within the check, so nothing including its name is built when metrics
+     * are off.
+     */
+    private static void report(Class<?> sorter, Stopwatch sw, Metrics.Snapshot before, long start) {
+        if (Metrics.ENABLED) {
+            Metrics.stop("sort." + sorter.getSimpleName(), start);
+        }
+        System.out.println("Sort time: " + sw.elapsedTime());
+        if (Metrics.ENABLED) {
+            Metrics.Snapshot m = Metrics.snapshot();
+            System.out.println("Compares: " + (m.get(Counter.COMPARES) - before.get(Counter.COMPARES)));
+            System.out.println("Exchanges: " + (m.get(Counter.EXCHANGES) - before.get(Counter.EXCHANGES)));
+        }
+    }
 
+    static final Pattern WHITESPACE_PATTERN
+            = Pattern.compile("\\p{javaWhitespace}+");
 
-    private static abstract class Sorter {
 
-        protected int ac;
+    static abstract class Sorter {
 
         public void sort(Comparable[] x) {
+            Metrics.Snapshot before = Metrics.ENABLED ? Metrics.snapshot() : null;
+            long start = Metrics.start();
+            Stopwatch sw = new Stopwatch();
+            sortImpl(x);
+            report(getClass(), sw, before, start);
+        }
+
+        public void sort(int[] x) {
+            Metrics.Snapshot before = Metrics.ENABLED ? Metrics.snapshot() : null;
+            long start = Metrics.start();
+            Stopwatch sw = new Stopwatch();
+            sortImpl(x);
+            report(getClass(), sw, before, start);
+        }
+
+        public void sort(long[] x) {
+            Metrics.Snapshot before = Metrics.ENABLED ? Metrics.snapshot() : null;
+            long start = Metrics.start();
+            Stopwatch sw = new Stopwatch();
+            sortImpl(x);
+            report(getClass(), sw, before, start);
+        }
+
+        public void sort(double[] x) {
+            Metrics.Snapshot before = Metrics.ENABLED ? Metrics.snapshot() : null;
+            long start = Metrics.start();
             Stopwatch sw = new Stopwatch();
             sortImpl(x);
-            System.out.println("Sort time: " + sw.elapsedTime());
-            System.out.println("Accesses: " + ac);
+            report(getClass(), sw, before, start);
         }
 
         abstract void sortImpl(Comparable[] x);
 
+        /**
+         * Primitive overloads, sorters override these to compare and
+         * exchange directly on the array without boxing each element. By
+         * default the input is boxed, sorted by
+         * {@link #sortImpl(Comparable[])} and copied back.
+         */
+        void sortImpl(int[] x) {
+            Integer[] boxed = new Integer[x.length];
+            for (int i = 0; i < x.length; i++) {
+                boxed[i] = x[i];
+            }
+            sortImpl(boxed);
+            for (int i = 0; i < x.length; i++) {
+                x[i] = boxed[i];
+            }
+        }
+
+        void sortImpl(long[] x) {
+            Long[] boxed = new Long[x.length];
+            for (int i = 0; i < x.length; i++) {
+                boxed[i] = x[i];
+            }
+            sortImpl(boxed);
+            for (int i = 0; i < x.length; i++) {
+                x[i] = boxed[i];
+            }
+        }
+
+        void sortImpl(double[] x) {
+            Double[] boxed = new Double[x.length];
+            for (int i = 0; i < x.length; i++) {
+                boxed[i] = x[i];
+            }
+            sortImpl(boxed);
+            for (int i = 0; i < x.length; i++) {
+                x[i] = boxed[i];
+            }
+        }
+
     }
 
 
-    private static final class SelectionSort extends Sorter {
+    static final class SelectionSort extends Sorter {
 
         @Override
         public void sortImpl(Comparable[] arr) {
             int idx;
             for (int i = 0; i < arr.length; i++) {
-                ac++;
                 idx = i;
                 for (int j = i + 1; j < arr.length; j++) {
-                    ac++;
+                    if (less(arr[j], arr[idx])) {
+                        idx = j;
+                    }
+                }
+                exch(arr, i, idx);
+            }
+        }
+
+
+        @Override
+        public void sortImpl(int[] arr) {
+            int idx;
+            for (int i = 0; i < arr.length; i++) {
+                idx = i;
+                for (int j = i + 1; j < arr.length; j++) {
+                    if (less(arr[j], arr[idx])) {
+                        idx = j;
+                    }
+                }
+                exch(arr, i, idx);
+            }
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            int idx;
+            for (int i = 0; i < arr.length; i++) {
+                idx = i;
+                for (int j = i + 1; j < arr.length; j++) {
+                    if (less(arr[j], arr[idx])) {
+                        idx = j;
+                    }
+                }
+                exch(arr, i, idx);
+            }
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            int idx;
+            for (int i = 0; i < arr.length; i++) {
+                idx = i;
+                for (int j = i + 1; j < arr.length; j++) {
                     if (less(arr[j], arr[idx])) {
                         idx = j;
                     }
@@ -138,14 +339,52 @@ public class AppSorting {
     }
 
 
-    private static final class InsertionSort extends Sorter {
+    static final class InsertionSort extends Sorter {
 
         @Override
         public void sortImpl(Comparable[] arr) {
             for (int i = 1; i < arr.length; i++) {
-                ac++;
                 for (int j = i; j > 0; j--) {
-                    ac++;
+                    if (less(arr[j], arr[j - 1])) {
+                        exch(arr, j, j - 1);
+                    } else {
+                        break;
+                    }
+                }
+            }
+        }
+
+
+        @Override
+        public void sortImpl(int[] arr) {
+            for (int i = 1; i < arr.length; i++) {
+                for (int j = i; j > 0; j--) {
+                    if (less(arr[j], arr[j - 1])) {
+                        exch(arr, j, j - 1);
+                    } else {
+                        break;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            for (int i = 1; i < arr.length; i++) {
+                for (int j = i; j > 0; j--) {
+                    if (less(arr[j], arr[j - 1])) {
+                        exch(arr, j, j - 1);
+                    } else {
+                        break;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            for (int i = 1; i < arr.length; i++) {
+                for (int j = i; j > 0; j--) {
                     if (less(arr[j], arr[j - 1])) {
                         exch(arr, j, j - 1);
                     } else {
@@ -158,7 +397,7 @@ public class AppSorting {
     }
 
 
-    private static final class ShellSort extends Sorter {
+    static final class ShellSort extends Sorter {
 
         private final InsertionSort is;
 
@@ -176,9 +415,74 @@ public class AppSorting {
 
             while (h >= 1) {
                 for (int i = h; i < arr.length; i++) {
-                    ac++;
                     for (int j = i; j >= h; j -= h) {
-                        ac++;
+                        if (less(arr[j], arr[j - h])) {
+                            exch(arr, j, j - h);
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                h /= 3;
+            }
+        }
+
+
+        @Override
+        void sortImpl(int[] arr) {
+            int h = 1;
+            int max = arr.length / 3;
+            while (h < max) {
+                h = 3 * h + 1;
+            }
+
+            while (h >= 1) {
+                for (int i = h; i < arr.length; i++) {
+                    for (int j = i; j >= h; j -= h) {
+                        if (less(arr[j], arr[j - h])) {
+                            exch(arr, j, j - h);
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                h /= 3;
+            }
+        }
+
+        @Override
+        void sortImpl(long[] arr) {
+            int h = 1;
+            int max = arr.length / 3;
+            while (h < max) {
+                h = 3 * h + 1;
+            }
+
+            while (h >= 1) {
+                for (int i = h; i < arr.length; i++) {
+                    for (int j = i; j >= h; j -= h) {
+                        if (less(arr[j], arr[j - h])) {
+                            exch(arr, j, j - h);
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                h /= 3;
+            }
+        }
+
+        @Override
+        void sortImpl(double[] arr) {
+            int h = 1;
+            int max = arr.length / 3;
+            while (h < max) {
+                h = 3 * h + 1;
+            }
+
+            while (h >= 1) {
+                for (int i = h; i < arr.length; i++) {
+                    for (int j = i; j >= h; j -= h) {
                         if (less(arr[j], arr[j - h])) {
                             exch(arr, j, j - h);
                         } else {
@@ -193,7 +497,7 @@ public class AppSorting {
     }
 
 
-    private static class MergeSort extends Sorter {
+    static class MergeSort extends Sorter {
 
         @Override
         public void sortImpl(Comparable[] arr) {
@@ -202,7 +506,6 @@ public class AppSorting {
         }
 
         protected void divideAndSort(Comparable[] arr, int from, int to, Comparable[] temp) {
-            ac++;
             if (from >= to) {
                 return;
             }
@@ -213,6 +516,9 @@ public class AppSorting {
         }
 
         protected void merge(Comparable[] arr, int from, int mid, int to, Comparable[] temp) {
+            // Each element is copied to temp and then merged back.
+            Metrics.add(Counter.ARRAY_READS, 2L * (to - from + 1));
+            Metrics.add(Counter.ARRAY_WRITES, 2L * (to - from + 1));
             for (int k = from; k <= to; k++) {
                 temp[k] = arr[k];
             }
@@ -220,7 +526,6 @@ public class AppSorting {
             int leftIdx = from;
             int rightIdx = mid + 1;
             for (int k = from; k <= to; k++) {
-                ac++;
                 Comparable val;
 
                 if (leftIdx > mid) {
@@ -236,109 +541,3942 @@ public class AppSorting {
             }
         }
 
-    }
-
-
-    private static final class TopDownMergeSort extends MergeSort {
 
         @Override
-        protected void divideAndSort(Comparable[] arr, int from, int to, Comparable[] temp) {
+        public void sortImpl(int[] arr) {
+            int[] temp = new int[arr.length];
+            divideAndSort(arr, 0, arr.length - 1, temp);
+        }
+
+        protected void divideAndSort(int[] arr, int from, int to, int[] temp) {
             if (from >= to) {
                 return;
             }
-            int mid = from + (to - from) / 2;
+            int mid = from + ((to - from) / 2);
             divideAndSort(arr, from, mid, temp);
             divideAndSort(arr, mid + 1, to, temp);
             merge(arr, from, mid, to, temp);
         }
 
-    }
-
+        protected void merge(int[] arr, int from, int mid, int to, int[] temp) {
+            // Each element is copied to temp and then merged back.
+            Metrics.add(Counter.ARRAY_READS, 2L * (to - from + 1));
+            Metrics.add(Counter.ARRAY_WRITES, 2L * (to - from + 1));
+            for (int k = from; k <= to; k++) {
+                temp[k] = arr[k];
+            }
 
-    private static final class BottomUpMergeSort extends MergeSort {
+            int leftIdx = from;
+            int rightIdx = mid + 1;
+            for (int k = from; k <= to; k++) {
+                int val;
 
-        @Override
-        public void sortImpl(Comparable[] arr) {
-            Comparable[] temp = new Comparable[arr.length];
-            for (int size = 1; size < arr.length; size *= 2) {
-                ac++;
-                for (int lo = 0; lo < arr.length; lo += size * 2) {
-                    ac++;
-                    merge(arr,
-                          lo,
-                          lo + size - 1,
-                          Math.min(lo + size + size - 1, arr.length - 1),
-                          temp);
+                if (leftIdx > mid) {
+                    val = temp[rightIdx++];
+                } else if (rightIdx > to) {
+                    val = temp[leftIdx++];
+                } else if (less(temp[rightIdx], temp[leftIdx])) {
+                    val = temp[rightIdx++];
+                } else {
+                    val = temp[leftIdx++];
                 }
+                arr[k] = val;
             }
         }
 
-    }
-
-
-    private static final class QuickSort extends Sorter {
-
         @Override
-        public void sortImpl(Comparable[] arr) {
-            StdRandom.shuffle(arr);
-            sort(arr, 0, arr.length - 1);
+        public void sortImpl(long[] arr) {
+            long[] temp = new long[arr.length];
+            divideAndSort(arr, 0, arr.length - 1, temp);
         }
 
-        private void sort(Comparable[] arr, int startI, int endI) {
-            if (endI <= startI) {
+        protected void divideAndSort(long[] arr, int from, int to, long[] temp) {
+            if (from >= to) {
                 return;
             }
-            int psize = partition(arr, startI, endI);
-            sort(arr, startI, psize - 1);
+            int mid = from + ((to - from) / 2);
+            divideAndSort(arr, from, mid, temp);
+            divideAndSort(arr, mid + 1, to, temp);
+            merge(arr, from, mid, to, temp);
+        }
+
+        protected void merge(long[] arr, int from, int mid, int to, long[] temp) {
+            // Each element is copied to temp and then merged back.
+            Metrics.add(Counter.ARRAY_READS, 2L * (to - from + 1));
+            Metrics.add(Counter.ARRAY_WRITES, 2L * (to - from + 1));
+            for (int k = from; k <= to; k++) {
+                temp[k] = arr[k];
+            }
+
+            int leftIdx = from;
+            int rightIdx = mid + 1;
+            for (int k = from; k <= to; k++) {
+                long val;
+
+                if (leftIdx > mid) {
+                    val = temp[rightIdx++];
+                } else if (rightIdx > to) {
+                    val = temp[leftIdx++];
+                } else if (less(temp[rightIdx], temp[leftIdx])) {
+                    val = temp[rightIdx++];
+                } else {
+                    val = temp[leftIdx++];
+                }
+                arr[k] = val;
+            }
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            double[] temp = new double[arr.length];
+            divideAndSort(arr, 0, arr.length - 1, temp);
+        }
+
+        protected void divideAndSort(double[] arr, int from, int to, double[] temp) {
+            if (from >= to) {
+                return;
+            }
+            int mid = from + ((to - from) / 2);
+            divideAndSort(arr, from, mid, temp);
+            divideAndSort(arr, mid + 1, to, temp);
+            merge(arr, from, mid, to, temp);
+        }
+
+        protected void merge(double[] arr, int from, int mid, int to, double[] temp) {
+            // Each element is copied to temp and then merged back.
+            Metrics.add(Counter.ARRAY_READS, 2L * (to - from + 1));
+            Metrics.add(Counter.ARRAY_WRITES, 2L * (to - from + 1));
+            for (int k = from; k <= to; k++) {
+                temp[k] = arr[k];
+            }
+
+            int leftIdx = from;
+            int rightIdx = mid + 1;
+            for (int k = from; k <= to; k++) {
+                double val;
+
+                if (leftIdx > mid) {
+                    val = temp[rightIdx++];
+                } else if (rightIdx > to) {
+                    val = temp[leftIdx++];
+                } else if (less(temp[rightIdx], temp[leftIdx])) {
+                    val = temp[rightIdx++];
+                } else {
+                    val = temp[leftIdx++];
+                }
+                arr[k] = val;
+            }
+        }
+
+    }
+
+
+    static final class TopDownMergeSort extends MergeSort {
+
+        @Override
+        protected void divideAndSort(Comparable[] arr, int from, int to, Comparable[] temp) {
+            if (from >= to) {
+                return;
+            }
+            int mid = from + (to - from) / 2;
+            divideAndSort(arr, from, mid, temp);
+            divideAndSort(arr, mid + 1, to, temp);
+            merge(arr, from, mid, to, temp);
+        }
+
+    }
+
+
+    static final class BottomUpMergeSort extends MergeSort {
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            Comparable[] temp = new Comparable[arr.length];
+            for (int size = 1; size < arr.length; size *= 2) {
+                for (int lo = 0; lo < arr.length; lo += size * 2) {
+                    merge(arr,
+                          lo,
+                          lo + size - 1,
+                          Math.min(lo + size + size - 1, arr.length - 1),
+                          temp);
+                }
+            }
+        }
+
+
+        @Override
+        public void sortImpl(int[] arr) {
+            int[] temp = new int[arr.length];
+            for (int size = 1; size < arr.length; size *= 2) {
+                for (int lo = 0; lo < arr.length; lo += size * 2) {
+                    merge(arr,
+                          lo,
+                          lo + size - 1,
+                          Math.min(lo + size + size - 1, arr.length - 1),
+                          temp);
+                }
+            }
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            long[] temp = new long[arr.length];
+            for (int size = 1; size < arr.length; size *= 2) {
+                for (int lo = 0; lo < arr.length; lo += size * 2) {
+                    merge(arr,
+                          lo,
+                          lo + size - 1,
+                          Math.min(lo + size + size - 1, arr.length - 1),
+                          temp);
+                }
+            }
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            double[] temp = new double[arr.length];
+            for (int size = 1; size < arr.length; size *= 2) {
+                for (int lo = 0; lo < arr.length; lo += size * 2) {
+                    merge(arr,
+                          lo,
+                          lo + size - 1,
+                          Math.min(lo + size + size - 1, arr.length - 1),
+                          temp);
+                }
+            }
+        }
+
+    }
+
+
+    /**
+     * Bottom up merge sort that merges between two buffers without copying.
+     *
+     * {@link MergeSort#merge(Comparable[], int, int, int, Comparable[])}
+     * copies the range to <code>temp</code> before merging it back, moving
+     * every element twice per pass. Here each pass merges from one buffer
+     * into the other and the roles swap for the next pass, so elements move
+     * once per pass. Passes start from blocks of <code>block</code>
+     * elements sorted by insertion sort. A pair of ranges that is already in
+     * order, <code>a[mid - 1] &lt;= a[mid]</code>, is copied across instead
+     * of merged. The result is copied back once if it ends in the scratch
+     * buffer.
+     */
+    static final class PingPongMergeSort extends Sorter {
+
+        static final int DEFAULT_BLOCK = 32;
+
+        private final int block;
+
+        public PingPongMergeSort() {
+            this(DEFAULT_BLOCK);
+        }
+
+        /**
+         * @param   block
+         *          Width of the blocks insertion sorted before merging.
+         */
+        public PingPongMergeSort(int block) {
+            if (block < 1) {
+                throw new IllegalArgumentException("Block width must be positive: " + block);
+            }
+            this.block = block;
+        }
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            int n = arr.length;
+            for (int lo = 0; lo < n; lo += block) {
+                insertionSort(arr, lo, Math.min(lo + block, n));
+            }
+            if (block >= n) {
+                return;
+            }
+            Comparable[] src = arr;
+            Comparable[] dst = new Comparable[n];
+            for (int width = block; width < n; width *= 2) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n);
+                    int hi = Math.min(mid + width, n);
+                    if (mid == hi || !less(src[mid], src[mid - 1])) {
+                        System.arraycopy(src, lo, dst, lo, hi - lo);
+                    } else {
+                        merge(src, dst, lo, mid, hi);
+                    }
+                }
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+                Comparable[] t = src;
+                src = dst;
+                dst = t;
+            }
+            if (src != arr) {
+                System.arraycopy(src, 0, arr, 0, n);
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+            }
+        }
+
+        /**
+         * Merges <code>src[lo..mid)</code> and <code>src[mid..hi)</code> into
+         * the same positions of <code>dst</code>.
+         */
+        private static void merge(Comparable[] src, Comparable[] dst, int lo, int mid, int hi) {
+            int i = lo;
+            int j = mid;
+            int k = lo;
+            while (i < mid && j < hi) {
+                dst[k++] = less(src[j], src[i]) ? src[j++] : src[i++];
+            }
+            System.arraycopy(src, i, dst, k, mid - i);
+            System.arraycopy(src, j, dst, k + mid - i, hi - j);
+        }
+
+        /**
+         * Insertion sort of <code>arr[lo..hi)</code> shifting rather than
+         * exchanging, one write per element moved.
+         */
+        private static void insertionSort(Comparable[] arr, int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                Comparable v = arr[i];
+                int j = i;
+                while (j > lo && less(v, arr[j - 1])) {
+                    arr[j] = arr[j - 1];
+                    j--;
+                }
+                arr[j] = v;
+                Metrics.add(Counter.ARRAY_READS, i - j + 1);
+                Metrics.add(Counter.ARRAY_WRITES, i - j + 1);
+            }
+        }
+
+        @Override
+        public void sortImpl(int[] arr) {
+            int n = arr.length;
+            for (int lo = 0; lo < n; lo += block) {
+                insertionSort(arr, lo, Math.min(lo + block, n));
+            }
+            if (block >= n) {
+                return;
+            }
+            int[] src = arr;
+            int[] dst = new int[n];
+            for (int width = block; width < n; width *= 2) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n);
+                    int hi = Math.min(mid + width, n);
+                    if (mid == hi || !less(src[mid], src[mid - 1])) {
+                        System.arraycopy(src, lo, dst, lo, hi - lo);
+                    } else {
+                        merge(src, dst, lo, mid, hi);
+                    }
+                }
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+                int[] t = src;
+                src = dst;
+                dst = t;
+            }
+            if (src != arr) {
+                System.arraycopy(src, 0, arr, 0, n);
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+            }
+        }
+
+        /**
+         * Merges <code>src[lo..mid)</code> and <code>src[mid..hi)</code> into
+         * the same positions of <code>dst</code>.
+         */
+        static void merge(int[] src, int[] dst, int lo, int mid, int hi) {
+            int i = lo;
+            int j = mid;
+            int k = lo;
+            while (i < mid && j < hi) {
+                dst[k++] = less(src[j], src[i]) ? src[j++] : src[i++];
+            }
+            System.arraycopy(src, i, dst, k, mid - i);
+            System.arraycopy(src, j, dst, k + mid - i, hi - j);
+        }
+
+        /**
+         * Insertion sort of <code>arr[lo..hi)</code> shifting rather than
+         * exchanging, one write per element moved.
+         */
+        private static void insertionSort(int[] arr, int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                int v = arr[i];
+                int j = i;
+                while (j > lo && less(v, arr[j - 1])) {
+                    arr[j] = arr[j - 1];
+                    j--;
+                }
+                arr[j] = v;
+                Metrics.add(Counter.ARRAY_READS, i - j + 1);
+                Metrics.add(Counter.ARRAY_WRITES, i - j + 1);
+            }
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            int n = arr.length;
+            for (int lo = 0; lo < n; lo += block) {
+                insertionSort(arr, lo, Math.min(lo + block, n));
+            }
+            if (block >= n) {
+                return;
+            }
+            long[] src = arr;
+            long[] dst = new long[n];
+            for (int width = block; width < n; width *= 2) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n);
+                    int hi = Math.min(mid + width, n);
+                    if (mid == hi || !less(src[mid], src[mid - 1])) {
+                        System.arraycopy(src, lo, dst, lo, hi - lo);
+                    } else {
+                        merge(src, dst, lo, mid, hi);
+                    }
+                }
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+                long[] t = src;
+                src = dst;
+                dst = t;
+            }
+            if (src != arr) {
+                System.arraycopy(src, 0, arr, 0, n);
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+            }
+        }
+
+        /**
+         * Merges <code>src[lo..mid)</code> and <code>src[mid..hi)</code> into
+         * the same positions of <code>dst</code>.
+         */
+        static void merge(long[] src, long[] dst, int lo, int mid, int hi) {
+            int i = lo;
+            int j = mid;
+            int k = lo;
+            while (i < mid && j < hi) {
+                dst[k++] = less(src[j], src[i]) ? src[j++] : src[i++];
+            }
+            System.arraycopy(src, i, dst, k, mid - i);
+            System.arraycopy(src, j, dst, k + mid - i, hi - j);
+        }
+
+        /**
+         * Insertion sort of <code>arr[lo..hi)</code> shifting rather than
+         * exchanging, one write per element moved.
+         */
+        private static void insertionSort(long[] arr, int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                long v = arr[i];
+                int j = i;
+                while (j > lo && less(v, arr[j - 1])) {
+                    arr[j] = arr[j - 1];
+                    j--;
+                }
+                arr[j] = v;
+                Metrics.add(Counter.ARRAY_READS, i - j + 1);
+                Metrics.add(Counter.ARRAY_WRITES, i - j + 1);
+            }
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            int n = arr.length;
+            for (int lo = 0; lo < n; lo += block) {
+                insertionSort(arr, lo, Math.min(lo + block, n));
+            }
+            if (block >= n) {
+                return;
+            }
+            double[] src = arr;
+            double[] dst = new double[n];
+            for (int width = block; width < n; width *= 2) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n);
+                    int hi = Math.min(mid + width, n);
+                    if (mid == hi || !less(src[mid], src[mid - 1])) {
+                        System.arraycopy(src, lo, dst, lo, hi - lo);
+                    } else {
+                        merge(src, dst, lo, mid, hi);
+                    }
+                }
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+                double[] t = src;
+                src = dst;
+                dst = t;
+            }
+            if (src != arr) {
+                System.arraycopy(src, 0, arr, 0, n);
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+            }
+        }
+
+        /**
+         * Merges <code>src[lo..mid)</code> and <code>src[mid..hi)</code> into
+         * the same positions of <code>dst</code>.
+         */
+        private static void merge(double[] src, double[] dst, int lo, int mid, int hi) {
+            int i = lo;
+            int j = mid;
+            int k = lo;
+            while (i < mid && j < hi) {
+                dst[k++] = less(src[j], src[i]) ? src[j++] : src[i++];
+            }
+            System.arraycopy(src, i, dst, k, mid - i);
+            System.arraycopy(src, j, dst, k + mid - i, hi - j);
+        }
+
+        /**
+         * Insertion sort of <code>arr[lo..hi)</code> shifting rather than
+         * exchanging, one write per element moved.
+         */
+        private static void insertionSort(double[] arr, int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                double v = arr[i];
+                int j = i;
+                while (j > lo && less(v, arr[j - 1])) {
+                    arr[j] = arr[j - 1];
+                    j--;
+                }
+                arr[j] = v;
+                Metrics.add(Counter.ARRAY_READS, i - j + 1);
+                Metrics.add(Counter.ARRAY_WRITES, i - j + 1);
+            }
+        }
+
+    }
+
+
+    /**
+     * Bottom up merge sort of <code>int[]</code> and <code>long[]</code> built
+     * on {@link Kernels}.
+     *
+     * Blocks of {@link Kernels#blockSize(int[])} elements are sorted by a
+     * sorting network and then merged between two buffers as in
+     * {@link PingPongMergeSort}, with the branchless or vectorized kernel
+     * merge. Objects and <code>double[]</code> are sorted by
+     * {@link PingPongMergeSort}. Compares are not counted, reads and writes
+     * are counted per pass.
+     */
+    static final class KernelMergeSort extends Sorter {
+
+        private final Kernels kernels;
+        private final PingPongMergeSort fallback = new PingPongMergeSort();
+
+        public KernelMergeSort() {
+            this(Kernels.get());
+        }
+
+        KernelMergeSort(Kernels kernels) {
+            this.kernels = kernels;
+        }
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            fallback.sortImpl(arr);
+        }
+
+        @Override
+        public void sortImpl(int[] arr) {
+            int n = arr.length;
+            int block = kernels.blockSize(arr);
+            kernels.sortBlocks(arr, 0, n);
+            Metrics.add(Counter.ARRAY_READS, n);
+            Metrics.add(Counter.ARRAY_WRITES, n);
+            if (block >= n) {
+                return;
+            }
+            int[] src = arr;
+            int[] dst = new int[n];
+            for (int width = block; width < n; width *= 2) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n);
+                    int hi = Math.min(mid + width, n);
+                    if (mid == hi || src[mid - 1] <= src[mid]) {
+                        System.arraycopy(src, lo, dst, lo, hi - lo);
+                    } else {
+                        kernels.merge(src, lo, mid, hi, dst);
+                    }
+                }
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+                int[] t = src;
+                src = dst;
+                dst = t;
+            }
+            if (src != arr) {
+                System.arraycopy(src, 0, arr, 0, n);
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+            }
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            int n = arr.length;
+            int block = kernels.blockSize(arr);
+            kernels.sortBlocks(arr, 0, n);
+            Metrics.add(Counter.ARRAY_READS, n);
+            Metrics.add(Counter.ARRAY_WRITES, n);
+            if (block >= n) {
+                return;
+            }
+            long[] src = arr;
+            long[] dst = new long[n];
+            for (int width = block; width < n; width *= 2) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n);
+                    int hi = Math.min(mid + width, n);
+                    if (mid == hi || src[mid - 1] <= src[mid]) {
+                        System.arraycopy(src, lo, dst, lo, hi - lo);
+                    } else {
+                        kernels.merge(src, lo, mid, hi, dst);
+                    }
+                }
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+                long[] t = src;
+                src = dst;
+                dst = t;
+            }
+            if (src != arr) {
+                System.arraycopy(src, 0, arr, 0, n);
+                Metrics.add(Counter.ARRAY_READS, n);
+                Metrics.add(Counter.ARRAY_WRITES, n);
+            }
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            fallback.sortImpl(arr);
+        }
+
+    }
+
+
+    /**
+     * Quick sort of <code>int[]</code> and <code>long[]</code> built on the
+     * {@link Kernels} partition.
+     *
+     * Each range is split around a median of 3 pivot by two stable partition
+     * passes, the keys less than the pivot and then, of the rest, the keys
+     * equal to it which are not revisited. The smaller side is sorted
+     * recursively and the larger looped on, ranges no larger than
+     * {@link Kernels#blockSize(int[])} are finished by
+     * {@link Kernels#sortBlocks(int[], int, int)}. Objects and
+     * <code>double[]</code> are sorted by a 3-way {@link TunedQuickSort}.
+     * Compares are not counted, reads and writes are counted per pass.
+     */
+    static final class KernelQuickSort extends Sorter {
+
+        private final Kernels kernels;
+        private final TunedQuickSort fallback = new TunedQuickSort(TunedQuickSort.Partition.THREE_WAY);
+
+        public KernelQuickSort() {
+            this(Kernels.get());
+        }
+
+        KernelQuickSort(Kernels kernels) {
+            this.kernels = kernels;
+        }
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            fallback.sortImpl(arr);
+        }
+
+        @Override
+        public void sortImpl(int[] arr) {
+            sort(arr, 0, arr.length, kernels.blockSize(arr), new int[arr.length]);
+        }
+
+        private void sort(int[] a, int lo, int hi, int block, int[] buf) {
+            while (hi - lo > block) {
+                int pivot = median(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+                int lt = kernels.partition(a, lo, hi, pivot, buf);
+                // The pivot is one of the keys so the equal range is never empty.
+                int gt = pivot == Integer.MAX_VALUE ? hi : kernels.partition(a, lt, hi, pivot + 1, buf);
+                Metrics.add(Counter.ARRAY_READS, (hi - lo) + (hi - lt));
+                Metrics.add(Counter.ARRAY_WRITES, (hi - lo) + (hi - lt));
+                if (lt - lo < hi - gt) {
+                    sort(a, lo, lt, block, buf);
+                    lo = gt;
+                } else {
+                    sort(a, gt, hi, block, buf);
+                    hi = lt;
+                }
+            }
+            kernels.sortBlocks(a, lo, hi);
+            Metrics.add(Counter.ARRAY_READS, hi - lo);
+            Metrics.add(Counter.ARRAY_WRITES, hi - lo);
+        }
+
+        private static int median(int x, int y, int z) {
+            return Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            sort(arr, 0, arr.length, kernels.blockSize(arr), new long[arr.length]);
+        }
+
+        private void sort(long[] a, int lo, int hi, int block, long[] buf) {
+            while (hi - lo > block) {
+                long pivot = median(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+                int lt = kernels.partition(a, lo, hi, pivot, buf);
+                int gt = pivot == Long.MAX_VALUE ? hi : kernels.partition(a, lt, hi, pivot + 1, buf);
+                Metrics.add(Counter.ARRAY_READS, (hi - lo) + (hi - lt));
+                Metrics.add(Counter.ARRAY_WRITES, (hi - lo) + (hi - lt));
+                if (lt - lo < hi - gt) {
+                    sort(a, lo, lt, block, buf);
+                    lo = gt;
+                } else {
+                    sort(a, gt, hi, block, buf);
+                    hi = lt;
+                }
+            }
+            kernels.sortBlocks(a, lo, hi);
+            Metrics.add(Counter.ARRAY_READS, hi - lo);
+            Metrics.add(Counter.ARRAY_WRITES, hi - lo);
+        }
+
+        private static long median(long x, long y, long z) {
+            return Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            fallback.sortImpl(arr);
+        }
+
+    }
+
+
+    /**
+     * Merge sort that sorts both halves in parallel on a {@link ForkJoinPool}.
+     *
+     * Ranges smaller than the threshold are handed to the sequential
+     * {@link #divideAndSort(Comparable[], int, int, Comparable[])}. All tasks
+     * share the single temp buffer allocated by {@link #sortImpl(Comparable[])},
+     * this is safe as sibling tasks only ever touch disjoint ranges of it.
+     * The primitive overloads fork the same way.
+     */
+    static final class ParallelMergeSort extends MergeSort {
+
+        static final int DEFAULT_THRESHOLD = 1 << 13;
+
+        private final ForkJoinPool pool;
+        private final int threshold;
+
+        public ParallelMergeSort() {
+            this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+        }
+
+        public ParallelMergeSort(ForkJoinPool pool, int threshold) {
+            if (threshold < 2) {
+                throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+            }
+            this.pool = pool;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            Comparable[] temp = new Comparable[arr.length];
+            pool.invoke(new SortTask(arr, 0, arr.length - 1, temp));
+        }
+
+        @Override
+        public void sortImpl(int[] arr) {
+            int[] temp = new int[arr.length];
+            pool.invoke(new IntSortTask(arr, 0, arr.length - 1, temp));
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            long[] temp = new long[arr.length];
+            pool.invoke(new LongSortTask(arr, 0, arr.length - 1, temp));
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            double[] temp = new double[arr.length];
+            pool.invoke(new DoubleSortTask(arr, 0, arr.length - 1, temp));
+        }
+
+
+        @SuppressWarnings("serial")
+        private final class SortTask extends RecursiveAction {
+
+            private final Comparable[] arr;
+            private final int from;
+            private final int to;
+            private final Comparable[] temp;
+
+            SortTask(Comparable[] arr, int from, int to, Comparable[] temp) {
+                this.arr = arr;
+                this.from = from;
+                this.to = to;
+                this.temp = temp;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from < threshold) {
+                    divideAndSort(arr, from, to, temp);
+                    return;
+                }
+                int mid = from + (to - from) / 2;
+                invokeAll(new SortTask(arr, from, mid, temp),
+                          new SortTask(arr, mid + 1, to, temp));
+                merge(arr, from, mid, to, temp);
+            }
+
+        }
+
+        @SuppressWarnings("serial")
+        private final class IntSortTask extends RecursiveAction {
+
+            private final int[] arr;
+            private final int from;
+            private final int to;
+            private final int[] temp;
+
+            IntSortTask(int[] arr, int from, int to, int[] temp) {
+                this.arr = arr;
+                this.from = from;
+                this.to = to;
+                this.temp = temp;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from < threshold) {
+                    divideAndSort(arr, from, to, temp);
+                    return;
+                }
+                int mid = from + (to - from) / 2;
+                invokeAll(new IntSortTask(arr, from, mid, temp),
+                          new IntSortTask(arr, mid + 1, to, temp));
+                merge(arr, from, mid, to, temp);
+            }
+
+        }
+
+        @SuppressWarnings("serial")
+        private final class LongSortTask extends RecursiveAction {
+
+            private final long[] arr;
+            private final int from;
+            private final int to;
+            private final long[] temp;
+
+            LongSortTask(long[] arr, int from, int to, long[] temp) {
+                this.arr = arr;
+                this.from = from;
+                this.to = to;
+                this.temp = temp;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from < threshold) {
+                    divideAndSort(arr, from, to, temp);
+                    return;
+                }
+                int mid = from + (to - from) / 2;
+                invokeAll(new LongSortTask(arr, from, mid, temp),
+                          new LongSortTask(arr, mid + 1, to, temp));
+                merge(arr, from, mid, to, temp);
+            }
+
+        }
+
+        @SuppressWarnings("serial")
+        private final class DoubleSortTask extends RecursiveAction {
+
+            private final double[] arr;
+            private final int from;
+            private final int to;
+            private final double[] temp;
+
+            DoubleSortTask(double[] arr, int from, int to, double[] temp) {
+                this.arr = arr;
+                this.from = from;
+                this.to = to;
+                this.temp = temp;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from < threshold) {
+                    divideAndSort(arr, from, to, temp);
+                    return;
+                }
+                int mid = from + (to - from) / 2;
+                invokeAll(new DoubleSortTask(arr, from, mid, temp),
+                          new DoubleSortTask(arr, mid + 1, to, temp));
+                merge(arr, from, mid, to, temp);
+            }
+
+        }
+
+    }
+
+
+    static final class QuickSort extends Sorter {
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            StdRandom.shuffle(arr);
+            sort(arr, 0, arr.length - 1);
+        }
+
+        private void sort(Comparable[] arr, int startI, int endI) {
+            if (endI <= startI) {
+                return;
+            }
+            int psize = partition(arr, startI, endI);
+            sort(arr, startI, psize - 1);
+            sort(arr, psize + 1, endI);
+        }
+
+        private static int partition(Comparable[] arr, int startI, int endI) {
+            Comparable v = arr[startI];
+            int i = startI;
+            int j = endI + 1;
+
+            while (true) {
+                while (less(arr[++i], v)) {
+                    if (i == endI) {
+                        break;
+                    }
+                }
+
+                while (less(v, arr[--j])) {
+//                    if (j == startI) {
+//                        break;
+//                    }
+                }
+
+                if (i >= j) {
+                    break;
+                }
+
+                exch(arr, i, j);
+            }
+            exch(arr, startI, j);
+            return j;
+
+//            int leftIdx = -1;
+//            int rightIdx = -1;
+//            int j;
+//            for (j = startI; j < endI; j++) {
+//                if (!less(arr[j], arr[startI])) {
+//                    leftIdx = j;
+//                    break;
+//                }
+//            }
+//            for (j = arr.length - 1; j >= 0; j--) {
+//                if (less(arr[j], arr[startI])) {
+//                    rightIdx = j;
+//                    break;
+//                }
+//            }
+//            if (leftIdx >= 0 && rightIdx >= 0) {
+//                exch(arr, leftIdx, rightIdx);
+//            }
+//            return j;
+        }
+
+
+        @Override
+        public void sortImpl(int[] arr) {
+            StdRandom.shuffle(arr);
+            sort(arr, 0, arr.length - 1);
+        }
+
+        private void sort(int[] arr, int startI, int endI) {
+            if (endI <= startI) {
+                return;
+            }
+            int psize = partition(arr, startI, endI);
+            sort(arr, startI, psize - 1);
+            sort(arr, psize + 1, endI);
+        }
+
+        static int partition(int[] arr, int startI, int endI) {
+            int v = arr[startI];
+            int i = startI;
+            int j = endI + 1;
+
+            while (true) {
+                while (less(arr[++i], v)) {
+                    if (i == endI) {
+                        break;
+                    }
+                }
+
+                while (less(v, arr[--j])) {
+                    // Bounded by arr[startI] which is the pivot itself.
+                }
+
+                if (i >= j) {
+                    break;
+                }
+
+                exch(arr, i, j);
+            }
+            exch(arr, startI, j);
+            return j;
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            shuffle(arr);
+            sort(arr, 0, arr.length - 1);
+        }
+
+        private void sort(long[] arr, int startI, int endI) {
+            if (endI <= startI) {
+                return;
+            }
+            int psize = partition(arr, startI, endI);
+            sort(arr, startI, psize - 1);
+            sort(arr, psize + 1, endI);
+        }
+
+        static int partition(long[] arr, int startI, int endI) {
+            long v = arr[startI];
+            int i = startI;
+            int j = endI + 1;
+
+            while (true) {
+                while (less(arr[++i], v)) {
+                    if (i == endI) {
+                        break;
+                    }
+                }
+
+                while (less(v, arr[--j])) {
+                    // Bounded by arr[startI] which is the pivot itself.
+                }
+
+                if (i >= j) {
+                    break;
+                }
+
+                exch(arr, i, j);
+            }
+            exch(arr, startI, j);
+            return j;
+        }
+
+        /**
+         * {@link StdRandom} has no <code>long[]</code> shuffle. Like its
+         * other shuffles the swaps are not counted as exchanges, so the
+         * metrics of each path only cover the sort.
+         */
+        private static void shuffle(long[] arr) {
+            for (int i = 0; i < arr.length; i++) {
+                int r = i + StdRandom.uniform(arr.length - i);
+                long temp = arr[i];
+                arr[i] = arr[r];
+                arr[r] = temp;
+            }
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            StdRandom.shuffle(arr);
+            sort(arr, 0, arr.length - 1);
+        }
+
+        private void sort(double[] arr, int startI, int endI) {
+            if (endI <= startI) {
+                return;
+            }
+            int psize = partition(arr, startI, endI);
+            sort(arr, startI, psize - 1);
             sort(arr, psize + 1, endI);
         }
 
-        private int partition(Comparable[] arr, int startI, int endI) {
-            Comparable v = arr[startI];
-            int i = startI;
-            int j = endI + 1;
+        private static int partition(double[] arr, int startI, int endI) {
+            double v = arr[startI];
+            int i = startI;
+            int j = endI + 1;
+
+            while (true) {
+                while (less(arr[++i], v)) {
+                    if (i == endI) {
+                        break;
+                    }
+                }
+
+                while (less(v, arr[--j])) {
+                    // Bounded by arr[startI] which is the pivot itself.
+                }
+
+                if (i >= j) {
+                    break;
+                }
+
+                exch(arr, i, j);
+            }
+            exch(arr, startI, j);
+            return j;
+        }
+
+    }
+
+
+    /**
+     * Quick sort with a selectable partitioning scheme, pivot selection and a
+     * cutoff to insertion sort for small subarrays.
+     *
+     * <ul>
+     *  <li>{@link Partition#THREE_WAY} is Dijkstra's 3-way partitioning, keys
+     *      equal to the pivot are gathered in the middle and never revisited,
+     *      which makes inputs with many duplicate keys linear.</li>
+     *  <li>{@link Partition#DUAL_PIVOT} partitions into three ranges around
+     *      two pivots.</li>
+     * </ul>
+     *
+     * The input is only shuffled for {@link Pivot#FIRST}, sampling the pivot
+     * with {@link Pivot#MEDIAN_OF_3} or {@link Pivot#NINTHER} already avoids
+     * the quadratic case on sorted and reverse sorted input.
+     */
+    static final class TunedQuickSort extends Sorter {
+
+        static final int DEFAULT_CUTOFF = 10;
+
+        /**
+         * Subarrays at or below this size use a median of 3 in place of the
+         * ninther.
+         */
+        private static final int NINTHER_MIN = 40;
+
+
+        static enum Partition {
+            THREE_WAY, DUAL_PIVOT
+        }
+
+
+        static enum Pivot {
+            FIRST, MEDIAN_OF_3, NINTHER
+        }
+
+        private final Partition partition;
+        private final Pivot pivot;
+        private final int cutoff;
+
+        public TunedQuickSort(Partition partition) {
+            this(partition, Pivot.NINTHER, DEFAULT_CUTOFF);
+        }
+
+        public TunedQuickSort(Partition partition, Pivot pivot, int cutoff) {
+            if (cutoff < 0) {
+                throw new IllegalArgumentException("Cutoff must not be negative: " + cutoff);
+            }
+            this.partition = partition;
+            this.pivot = pivot;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            if (pivot == Pivot.FIRST) {
+                StdRandom.shuffle(arr);
+            }
+            sort(arr, 0, arr.length - 1);
+        }
+
+        @Override
+        public void sortImpl(int[] arr) {
+            if (pivot == Pivot.FIRST) {
+                StdRandom.shuffle(arr);
+            }
+            sort(arr, 0, arr.length - 1);
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            if (pivot == Pivot.FIRST) {
+                QuickSort.shuffle(arr);
+            }
+            sort(arr, 0, arr.length - 1);
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            if (pivot == Pivot.FIRST) {
+                StdRandom.shuffle(arr);
+            }
+            sort(arr, 0, arr.length - 1);
+        }
+
+        private void sort(Comparable[] arr, int lo, int hi) {
+            if (hi <= lo + cutoff) {
+                insertionSort(arr, lo, hi);
+            } else if (partition == Partition.THREE_WAY) {
+                sortThreeWay(arr, lo, hi);
+            } else {
+                sortDualPivot(arr, lo, hi);
+            }
+        }
+
+        private void sortThreeWay(Comparable[] arr, int lo, int hi) {
+            selectPivot(arr, lo, hi);
+            Comparable v = arr[lo];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(arr[i], v);
+                if (cmp < 0) {
+                    exch(arr, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sort(arr, lo, lt - 1);
+            sort(arr, gt + 1, hi);
+        }
+
+        private void sortDualPivot(Comparable[] arr, int lo, int hi) {
+            selectPivots(arr, lo, hi);
+            int lt = lo + 1;
+            int gt = hi - 1;
+            int i = lo + 1;
+            while (i <= gt) {
+                if (less(arr[i], arr[lo])) {
+                    exch(arr, lt++, i++);
+                } else if (less(arr[hi], arr[i])) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            exch(arr, lo, --lt);
+            exch(arr, hi, ++gt);
+            sort(arr, lo, lt - 1);
+            // When both pivots are equal the middle is all duplicates.
+            if (less(arr[lt], arr[gt])) {
+                sort(arr, lt + 1, gt - 1);
+            }
+            sort(arr, gt + 1, hi);
+        }
+
+        private void insertionSort(Comparable[] arr, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(arr[j], arr[j - 1]); j--) {
+                    exch(arr, j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Moves the chosen pivot to <code>arr[lo]</code>.
+         */
+        private void selectPivot(Comparable[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            int mid = lo + n / 2;
+            int m;
+            if (pivot == Pivot.FIRST) {
+                return;
+            } else if (pivot == Pivot.NINTHER && n > NINTHER_MIN) {
+                int eps = n / 8;
+                m = median3(arr,
+                            median3(arr, lo, lo + eps, lo + eps + eps),
+                            median3(arr, mid - eps, mid, mid + eps),
+                            median3(arr, hi - eps - eps, hi - eps, hi));
+            } else {
+                m = median3(arr, lo, mid, hi);
+            }
+            exch(arr, lo, m);
+        }
+
+        /**
+         * Moves the two chosen pivots to <code>arr[lo]</code> and
+         * <code>arr[hi]</code> such that <code>arr[lo] &lt;= arr[hi]</code>.
+         *
+         * Both {@link Pivot#MEDIAN_OF_3} and {@link Pivot#NINTHER} take the
+         * tertiles of five evenly spaced samples.
+         */
+        private void selectPivots(Comparable[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            if (pivot != Pivot.FIRST && n >= 7) {
+                int step = n / 7;
+                int e3 = lo + n / 2;
+                int e2 = e3 - step;
+                int e1 = e2 - step;
+                int e4 = e3 + step;
+                int e5 = e4 + step;
+                compareExch(arr, e1, e2);
+                compareExch(arr, e4, e5);
+                compareExch(arr, e3, e5);
+                compareExch(arr, e3, e4);
+                compareExch(arr, e1, e4);
+                compareExch(arr, e1, e3);
+                compareExch(arr, e2, e5);
+                compareExch(arr, e2, e4);
+                compareExch(arr, e2, e3);
+                exch(arr, lo, e2);
+                exch(arr, hi, e4);
+            } else if (less(arr[hi], arr[lo])) {
+                exch(arr, lo, hi);
+            }
+        }
+
+        private static int median3(Comparable[] arr, int i, int j, int k) {
+            return less(arr[i], arr[j])
+                   ? (less(arr[j], arr[k]) ? j : less(arr[i], arr[k]) ? k : i)
+                   : (less(arr[k], arr[j]) ? j : less(arr[k], arr[i]) ? k : i);
+        }
+
+        private static void compareExch(Comparable[] arr, int i, int j) {
+            if (less(arr[j], arr[i])) {
+                exch(arr, i, j);
+            }
+        }
+
+        private void sort(int[] arr, int lo, int hi) {
+            if (hi <= lo + cutoff) {
+                insertionSort(arr, lo, hi);
+            } else if (partition == Partition.THREE_WAY) {
+                sortThreeWay(arr, lo, hi);
+            } else {
+                sortDualPivot(arr, lo, hi);
+            }
+        }
+
+        private void sortThreeWay(int[] arr, int lo, int hi) {
+            selectPivot(arr, lo, hi);
+            int v = arr[lo];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(arr[i], v);
+                if (cmp < 0) {
+                    exch(arr, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sort(arr, lo, lt - 1);
+            sort(arr, gt + 1, hi);
+        }
+
+        private void sortDualPivot(int[] arr, int lo, int hi) {
+            selectPivots(arr, lo, hi);
+            int lt = lo + 1;
+            int gt = hi - 1;
+            int i = lo + 1;
+            while (i <= gt) {
+                if (less(arr[i], arr[lo])) {
+                    exch(arr, lt++, i++);
+                } else if (less(arr[hi], arr[i])) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            exch(arr, lo, --lt);
+            exch(arr, hi, ++gt);
+            sort(arr, lo, lt - 1);
+            // When both pivots are equal the middle is all duplicates.
+            if (less(arr[lt], arr[gt])) {
+                sort(arr, lt + 1, gt - 1);
+            }
+            sort(arr, gt + 1, hi);
+        }
+
+        private void insertionSort(int[] arr, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(arr[j], arr[j - 1]); j--) {
+                    exch(arr, j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Moves the chosen pivot to <code>arr[lo]</code>.
+         */
+        private void selectPivot(int[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            int mid = lo + n / 2;
+            int m;
+            if (pivot == Pivot.FIRST) {
+                return;
+            } else if (pivot == Pivot.NINTHER && n > NINTHER_MIN) {
+                int eps = n / 8;
+                m = median3(arr,
+                            median3(arr, lo, lo + eps, lo + eps + eps),
+                            median3(arr, mid - eps, mid, mid + eps),
+                            median3(arr, hi - eps - eps, hi - eps, hi));
+            } else {
+                m = median3(arr, lo, mid, hi);
+            }
+            exch(arr, lo, m);
+        }
+
+        /**
+         * Moves the two chosen pivots to <code>arr[lo]</code> and
+         * <code>arr[hi]</code> such that <code>arr[lo] &lt;= arr[hi]</code>.
+         *
+         * Both {@link Pivot#MEDIAN_OF_3} and {@link Pivot#NINTHER} take the
+         * tertiles of five evenly spaced samples.
+         */
+        private void selectPivots(int[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            if (pivot != Pivot.FIRST && n >= 7) {
+                int step = n / 7;
+                int e3 = lo + n / 2;
+                int e2 = e3 - step;
+                int e1 = e2 - step;
+                int e4 = e3 + step;
+                int e5 = e4 + step;
+                compareExch(arr, e1, e2);
+                compareExch(arr, e4, e5);
+                compareExch(arr, e3, e5);
+                compareExch(arr, e3, e4);
+                compareExch(arr, e1, e4);
+                compareExch(arr, e1, e3);
+                compareExch(arr, e2, e5);
+                compareExch(arr, e2, e4);
+                compareExch(arr, e2, e3);
+                exch(arr, lo, e2);
+                exch(arr, hi, e4);
+            } else if (less(arr[hi], arr[lo])) {
+                exch(arr, lo, hi);
+            }
+        }
+
+        private static int median3(int[] arr, int i, int j, int k) {
+            return less(arr[i], arr[j])
+                   ? (less(arr[j], arr[k]) ? j : less(arr[i], arr[k]) ? k : i)
+                   : (less(arr[k], arr[j]) ? j : less(arr[k], arr[i]) ? k : i);
+        }
+
+        private static void compareExch(int[] arr, int i, int j) {
+            if (less(arr[j], arr[i])) {
+                exch(arr, i, j);
+            }
+        }
+
+        private void sort(long[] arr, int lo, int hi) {
+            if (hi <= lo + cutoff) {
+                insertionSort(arr, lo, hi);
+            } else if (partition == Partition.THREE_WAY) {
+                sortThreeWay(arr, lo, hi);
+            } else {
+                sortDualPivot(arr, lo, hi);
+            }
+        }
+
+        private void sortThreeWay(long[] arr, int lo, int hi) {
+            selectPivot(arr, lo, hi);
+            long v = arr[lo];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(arr[i], v);
+                if (cmp < 0) {
+                    exch(arr, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sort(arr, lo, lt - 1);
+            sort(arr, gt + 1, hi);
+        }
+
+        private void sortDualPivot(long[] arr, int lo, int hi) {
+            selectPivots(arr, lo, hi);
+            int lt = lo + 1;
+            int gt = hi - 1;
+            int i = lo + 1;
+            while (i <= gt) {
+                if (less(arr[i], arr[lo])) {
+                    exch(arr, lt++, i++);
+                } else if (less(arr[hi], arr[i])) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            exch(arr, lo, --lt);
+            exch(arr, hi, ++gt);
+            sort(arr, lo, lt - 1);
+            // When both pivots are equal the middle is all duplicates.
+            if (less(arr[lt], arr[gt])) {
+                sort(arr, lt + 1, gt - 1);
+            }
+            sort(arr, gt + 1, hi);
+        }
+
+        private void insertionSort(long[] arr, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(arr[j], arr[j - 1]); j--) {
+                    exch(arr, j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Moves the chosen pivot to <code>arr[lo]</code>.
+         */
+        private void selectPivot(long[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            int mid = lo + n / 2;
+            int m;
+            if (pivot == Pivot.FIRST) {
+                return;
+            } else if (pivot == Pivot.NINTHER && n > NINTHER_MIN) {
+                int eps = n / 8;
+                m = median3(arr,
+                            median3(arr, lo, lo + eps, lo + eps + eps),
+                            median3(arr, mid - eps, mid, mid + eps),
+                            median3(arr, hi - eps - eps, hi - eps, hi));
+            } else {
+                m = median3(arr, lo, mid, hi);
+            }
+            exch(arr, lo, m);
+        }
+
+        /**
+         * Moves the two chosen pivots to <code>arr[lo]</code> and
+         * <code>arr[hi]</code> such that <code>arr[lo] &lt;= arr[hi]</code>.
+         *
+         * Both {@link Pivot#MEDIAN_OF_3} and {@link Pivot#NINTHER} take the
+         * tertiles of five evenly spaced samples.
+         */
+        private void selectPivots(long[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            if (pivot != Pivot.FIRST && n >= 7) {
+                int step = n / 7;
+                int e3 = lo + n / 2;
+                int e2 = e3 - step;
+                int e1 = e2 - step;
+                int e4 = e3 + step;
+                int e5 = e4 + step;
+                compareExch(arr, e1, e2);
+                compareExch(arr, e4, e5);
+                compareExch(arr, e3, e5);
+                compareExch(arr, e3, e4);
+                compareExch(arr, e1, e4);
+                compareExch(arr, e1, e3);
+                compareExch(arr, e2, e5);
+                compareExch(arr, e2, e4);
+                compareExch(arr, e2, e3);
+                exch(arr, lo, e2);
+                exch(arr, hi, e4);
+            } else if (less(arr[hi], arr[lo])) {
+                exch(arr, lo, hi);
+            }
+        }
+
+        private static int median3(long[] arr, int i, int j, int k) {
+            return less(arr[i], arr[j])
+                   ? (less(arr[j], arr[k]) ? j : less(arr[i], arr[k]) ? k : i)
+                   : (less(arr[k], arr[j]) ? j : less(arr[k], arr[i]) ? k : i);
+        }
+
+        private static void compareExch(long[] arr, int i, int j) {
+            if (less(arr[j], arr[i])) {
+                exch(arr, i, j);
+            }
+        }
+
+        private void sort(double[] arr, int lo, int hi) {
+            if (hi <= lo + cutoff) {
+                insertionSort(arr, lo, hi);
+            } else if (partition == Partition.THREE_WAY) {
+                sortThreeWay(arr, lo, hi);
+            } else {
+                sortDualPivot(arr, lo, hi);
+            }
+        }
+
+        private void sortThreeWay(double[] arr, int lo, int hi) {
+            selectPivot(arr, lo, hi);
+            double v = arr[lo];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(arr[i], v);
+                if (cmp < 0) {
+                    exch(arr, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sort(arr, lo, lt - 1);
+            sort(arr, gt + 1, hi);
+        }
+
+        private void sortDualPivot(double[] arr, int lo, int hi) {
+            selectPivots(arr, lo, hi);
+            int lt = lo + 1;
+            int gt = hi - 1;
+            int i = lo + 1;
+            while (i <= gt) {
+                if (less(arr[i], arr[lo])) {
+                    exch(arr, lt++, i++);
+                } else if (less(arr[hi], arr[i])) {
+                    exch(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            exch(arr, lo, --lt);
+            exch(arr, hi, ++gt);
+            sort(arr, lo, lt - 1);
+            // When both pivots are equal the middle is all duplicates.
+            if (less(arr[lt], arr[gt])) {
+                sort(arr, lt + 1, gt - 1);
+            }
+            sort(arr, gt + 1, hi);
+        }
+
+        private void insertionSort(double[] arr, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(arr[j], arr[j - 1]); j--) {
+                    exch(arr, j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Moves the chosen pivot to <code>arr[lo]</code>.
+         */
+        private void selectPivot(double[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            int mid = lo + n / 2;
+            int m;
+            if (pivot == Pivot.FIRST) {
+                return;
+            } else if (pivot == Pivot.NINTHER && n > NINTHER_MIN) {
+                int eps = n / 8;
+                m = median3(arr,
+                            median3(arr, lo, lo + eps, lo + eps + eps),
+                            median3(arr, mid - eps, mid, mid + eps),
+                            median3(arr, hi - eps - eps, hi - eps, hi));
+            } else {
+                m = median3(arr, lo, mid, hi);
+            }
+            exch(arr, lo, m);
+        }
+
+        /**
+         * Moves the two chosen pivots to <code>arr[lo]</code> and
+         * <code>arr[hi]</code> such that <code>arr[lo] &lt;= arr[hi]</code>.
+         *
+         * Both {@link Pivot#MEDIAN_OF_3} and {@link Pivot#NINTHER} take the
+         * tertiles of five evenly spaced samples.
+         */
+        private void selectPivots(double[] arr, int lo, int hi) {
+            int n = hi - lo + 1;
+            if (pivot != Pivot.FIRST && n >= 7) {
+                int step = n / 7;
+                int e3 = lo + n / 2;
+                int e2 = e3 - step;
+                int e1 = e2 - step;
+                int e4 = e3 + step;
+                int e5 = e4 + step;
+                compareExch(arr, e1, e2);
+                compareExch(arr, e4, e5);
+                compareExch(arr, e3, e5);
+                compareExch(arr, e3, e4);
+                compareExch(arr, e1, e4);
+                compareExch(arr, e1, e3);
+                compareExch(arr, e2, e5);
+                compareExch(arr, e2, e4);
+                compareExch(arr, e2, e3);
+                exch(arr, lo, e2);
+                exch(arr, hi, e4);
+            } else if (less(arr[hi], arr[lo])) {
+                exch(arr, lo, hi);
+            }
+        }
+
+        private static int median3(double[] arr, int i, int j, int k) {
+            return less(arr[i], arr[j])
+                   ? (less(arr[j], arr[k]) ? j : less(arr[i], arr[k]) ? k : i)
+                   : (less(arr[k], arr[j]) ? j : less(arr[k], arr[i]) ? k : i);
+        }
+
+        private static void compareExch(double[] arr, int i, int j) {
+            if (less(arr[j], arr[i])) {
+                exch(arr, i, j);
+            }
+        }
+
+    }
+
+
+    /**
+     * Selection without a full sort, built on the {@link QuickSort} partition.
+     *
+     * {@link #select(Comparable[], int) select} is quickselect with a median
+     * of 3 pivot. Should it take more than <code>2 lg n</code> partitions the
+     * remaining range is finished with median of medians pivots (introselect)
+     * so the worst case stays linear. {@link #partialSort(Comparable[], int)
+     * partialSort} selects the <code>k</code>th element and sorts only what
+     * is before it. {@link TopK} keeps the best <code>k</code> elements of a
+     * stream in a bounded heap so the input is never held in memory.
+     */
+    static final class Selection {
+
+        /** Sorts the prefix left by a partial sort, and small ranges. */
+        private static final TunedQuickSort PREFIX = new TunedQuickSort(TunedQuickSort.Partition.THREE_WAY);
+
+        private Selection() {
+        }
+
+        /**
+         * Streams the whitespace separated tokens of a data file through a
+         * {@link TopK}, only <code>k</code> tokens are held at a time.
+         *
+         * @param   fileName
+         *          Data file name resolved by {@link App#dataReader(String)}.
+         * @param   k
+         *          Number of tokens to keep.
+         * @param   largest
+         *          Keep the largest tokens rather than the smallest.
+         * @return  The selected tokens, best first.
+         * @throws  IOException
+         *          If the file can not be read.
+         */
+        static String[] top(String fileName, int k, boolean largest) throws IOException {
+            TopK<String> top = largest ? TopK.largest(k) : TopK.smallest(k);
+            try (BufferedReader br = App.dataReader(fileName)) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    for (String token : WHITESPACE_PATTERN.split(line)) {
+                        if (!token.isEmpty()) {
+                            top.offer(token);
+                        }
+                    }
+                }
+            }
+            return top.toArray(new String[top.size()]);
+        }
+
+        private static void checkRank(int length, int k) {
+            if (k < 0 || k >= length) {
+                throw new IllegalArgumentException("Rank " + k + " out of range for length " + length);
+            }
+        }
+
+        private static int depthLimit(int n) {
+            return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+        }
+
+        /**
+         * Rearranges <code>arr</code> so that <code>arr[k]</code> holds the
+         * element of rank <code>k</code>, everything before it is no greater
+         * and everything after it no less.
+         *
+         * @param   arr
+         *          Array to rearrange.
+         * @param   k
+         *          Zero based rank, <code>arr.length / 2</code> for the median.
+         * @return  The element of rank <code>k</code>.
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is not a valid index of <code>arr</code>.
+         */
+        static Comparable select(Comparable[] arr, int k) {
+            checkRank(arr.length, k);
+            select(arr, 0, arr.length - 1, k, depthLimit(arr.length));
+            return arr[k];
+        }
+
+        /**
+         * Puts the <code>k</code> smallest elements of <code>arr</code> in
+         * order at <code>arr[0..k)</code>, the rest are left in arbitrary
+         * order after them.
+         *
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is negative or greater than the length.
+         */
+        static void partialSort(Comparable[] arr, int k) {
+            if (k < 0 || k > arr.length) {
+                throw new IllegalArgumentException("k out of range: " + k);
+            }
+            if (k == 0) {
+                return;
+            }
+            if (k < arr.length) {
+                select(arr, 0, arr.length - 1, k - 1, depthLimit(arr.length));
+            }
+            PREFIX.sort(arr, 0, k - 1);
+        }
+
+        private static void select(Comparable[] arr, int lo, int hi, int k, int budget) {
+            while (hi > lo) {
+                if (hi - lo <= TunedQuickSort.DEFAULT_CUTOFF) {
+                    PREFIX.insertionSort(arr, lo, hi);
+                    return;
+                }
+                int p = budget-- > 0
+                        ? TunedQuickSort.median3(arr, lo, lo + (hi - lo) / 2, hi)
+                        : medianOfMedians(arr, lo, hi);
+                exch(arr, lo, p);
+                int j = QuickSort.partition(arr, lo, hi);
+                if (j < k) {
+                    lo = j + 1;
+                } else if (j > k) {
+                    hi = j - 1;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Index of a pivot guaranteed to have at least 30% of
+         * <code>arr[lo..hi]</code> on either side. Medians of groups of five
+         * are gathered at the front of the range and selected from.
+         */
+        private static int medianOfMedians(Comparable[] arr, int lo, int hi) {
+            int m = lo;
+            for (int i = lo; i <= hi; i += 5) {
+                int end = Math.min(i + 4, hi);
+                PREFIX.insertionSort(arr, i, end);
+                exch(arr, m++, i + (end - i) / 2);
+            }
+            int mid = lo + (m - 1 - lo) / 2;
+            select(arr, lo, m - 1, mid, 0);
+            return mid;
+        }
+
+        /**
+         * Rearranges <code>arr</code> so that <code>arr[k]</code> holds the
+         * element of rank <code>k</code>, everything before it is no greater
+         * and everything after it no less.
+         *
+         * @param   arr
+         *          Array to rearrange.
+         * @param   k
+         *          Zero based rank, <code>arr.length / 2</code> for the median.
+         * @return  The element of rank <code>k</code>.
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is not a valid index of <code>arr</code>.
+         */
+        static int select(int[] arr, int k) {
+            checkRank(arr.length, k);
+            select(arr, 0, arr.length - 1, k, depthLimit(arr.length));
+            return arr[k];
+        }
+
+        /**
+         * Puts the <code>k</code> smallest elements of <code>arr</code> in
+         * order at <code>arr[0..k)</code>, the rest are left in arbitrary
+         * order after them.
+         *
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is negative or greater than the length.
+         */
+        static void partialSort(int[] arr, int k) {
+            if (k < 0 || k > arr.length) {
+                throw new IllegalArgumentException("k out of range: " + k);
+            }
+            if (k == 0) {
+                return;
+            }
+            if (k < arr.length) {
+                select(arr, 0, arr.length - 1, k - 1, depthLimit(arr.length));
+            }
+            PREFIX.sort(arr, 0, k - 1);
+        }
+
+        private static void select(int[] arr, int lo, int hi, int k, int budget) {
+            while (hi > lo) {
+                if (hi - lo <= TunedQuickSort.DEFAULT_CUTOFF) {
+                    PREFIX.insertionSort(arr, lo, hi);
+                    return;
+                }
+                int p = budget-- > 0
+                        ? TunedQuickSort.median3(arr, lo, lo + (hi - lo) / 2, hi)
+                        : medianOfMedians(arr, lo, hi);
+                exch(arr, lo, p);
+                int j = QuickSort.partition(arr, lo, hi);
+                if (j < k) {
+                    lo = j + 1;
+                } else if (j > k) {
+                    hi = j - 1;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Index of a pivot guaranteed to have at least 30% of
+         * <code>arr[lo..hi]</code> on either side. Medians of groups of five
+         * are gathered at the front of the range and selected from.
+         */
+        private static int medianOfMedians(int[] arr, int lo, int hi) {
+            int m = lo;
+            for (int i = lo; i <= hi; i += 5) {
+                int end = Math.min(i + 4, hi);
+                PREFIX.insertionSort(arr, i, end);
+                exch(arr, m++, i + (end - i) / 2);
+            }
+            int mid = lo + (m - 1 - lo) / 2;
+            select(arr, lo, m - 1, mid, 0);
+            return mid;
+        }
+
+        /**
+         * Rearranges <code>arr</code> so that <code>arr[k]</code> holds the
+         * element of rank <code>k</code>, everything before it is no greater
+         * and everything after it no less.
+         *
+         * @param   arr
+         *          Array to rearrange.
+         * @param   k
+         *          Zero based rank, <code>arr.length / 2</code> for the median.
+         * @return  The element of rank <code>k</code>.
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is not a valid index of <code>arr</code>.
+         */
+        static long select(long[] arr, int k) {
+            checkRank(arr.length, k);
+            select(arr, 0, arr.length - 1, k, depthLimit(arr.length));
+            return arr[k];
+        }
+
+        /**
+         * Puts the <code>k</code> smallest elements of <code>arr</code> in
+         * order at <code>arr[0..k)</code>, the rest are left in arbitrary
+         * order after them.
+         *
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is negative or greater than the length.
+         */
+        static void partialSort(long[] arr, int k) {
+            if (k < 0 || k > arr.length) {
+                throw new IllegalArgumentException("k out of range: " + k);
+            }
+            if (k == 0) {
+                return;
+            }
+            if (k < arr.length) {
+                select(arr, 0, arr.length - 1, k - 1, depthLimit(arr.length));
+            }
+            PREFIX.sort(arr, 0, k - 1);
+        }
+
+        private static void select(long[] arr, int lo, int hi, int k, int budget) {
+            while (hi > lo) {
+                if (hi - lo <= TunedQuickSort.DEFAULT_CUTOFF) {
+                    PREFIX.insertionSort(arr, lo, hi);
+                    return;
+                }
+                int p = budget-- > 0
+                        ? TunedQuickSort.median3(arr, lo, lo + (hi - lo) / 2, hi)
+                        : medianOfMedians(arr, lo, hi);
+                exch(arr, lo, p);
+                int j = QuickSort.partition(arr, lo, hi);
+                if (j < k) {
+                    lo = j + 1;
+                } else if (j > k) {
+                    hi = j - 1;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Index of a pivot guaranteed to have at least 30% of
+         * <code>arr[lo..hi]</code> on either side. Medians of groups of five
+         * are gathered at the front of the range and selected from.
+         */
+        private static int medianOfMedians(long[] arr, int lo, int hi) {
+            int m = lo;
+            for (int i = lo; i <= hi; i += 5) {
+                int end = Math.min(i + 4, hi);
+                PREFIX.insertionSort(arr, i, end);
+                exch(arr, m++, i + (end - i) / 2);
+            }
+            int mid = lo + (m - 1 - lo) / 2;
+            select(arr, lo, m - 1, mid, 0);
+            return mid;
+        }
+
+        /**
+         * Rearranges <code>arr</code> so that <code>arr[k]</code> holds the
+         * element of rank <code>k</code>, everything before it is no greater
+         * and everything after it no less.
+         *
+         * @param   arr
+         *          Array to rearrange.
+         * @param   k
+         *          Zero based rank, <code>arr.length / 2</code> for the median.
+         * @return  The element of rank <code>k</code>.
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is not a valid index of <code>arr</code>.
+         */
+        static double select(double[] arr, int k) {
+            checkRank(arr.length, k);
+            select(arr, 0, arr.length - 1, k, depthLimit(arr.length));
+            return arr[k];
+        }
+
+        /**
+         * Puts the <code>k</code> smallest elements of <code>arr</code> in
+         * order at <code>arr[0..k)</code>, the rest are left in arbitrary
+         * order after them.
+         *
+         * @throws  IllegalArgumentException
+         *          If <code>k</code> is negative or greater than the length.
+         */
+        static void partialSort(double[] arr, int k) {
+            if (k < 0 || k > arr.length) {
+                throw new IllegalArgumentException("k out of range: " + k);
+            }
+            if (k == 0) {
+                return;
+            }
+            if (k < arr.length) {
+                select(arr, 0, arr.length - 1, k - 1, depthLimit(arr.length));
+            }
+            PREFIX.sort(arr, 0, k - 1);
+        }
+
+        private static void select(double[] arr, int lo, int hi, int k, int budget) {
+            while (hi > lo) {
+                if (hi - lo <= TunedQuickSort.DEFAULT_CUTOFF) {
+                    PREFIX.insertionSort(arr, lo, hi);
+                    return;
+                }
+                int p = budget-- > 0
+                        ? TunedQuickSort.median3(arr, lo, lo + (hi - lo) / 2, hi)
+                        : medianOfMedians(arr, lo, hi);
+                exch(arr, lo, p);
+                int j = QuickSort.partition(arr, lo, hi);
+                if (j < k) {
+                    lo = j + 1;
+                } else if (j > k) {
+                    hi = j - 1;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Index of a pivot guaranteed to have at least 30% of
+         * <code>arr[lo..hi]</code> on either side. Medians of groups of five
+         * are gathered at the front of the range and selected from.
+         */
+        private static int medianOfMedians(double[] arr, int lo, int hi) {
+            int m = lo;
+            for (int i = lo; i <= hi; i += 5) {
+                int end = Math.min(i + 4, hi);
+                PREFIX.insertionSort(arr, i, end);
+                exch(arr, m++, i + (end - i) / 2);
+            }
+            int mid = lo + (m - 1 - lo) / 2;
+            select(arr, lo, m - 1, mid, 0);
+            return mid;
+        }
+
+    }
+
+
+    /**
+     * Bounded heap holding the <code>k</code> smallest, or largest, elements
+     * offered to it.
+     *
+     * The root is the worst element kept so each offer is either rejected
+     * with one compare or replaces the root in <code>O(log k)</code>.
+     *
+     * @param   <T>
+     *          Element type.
+     */
+    static final class TopK<T extends Comparable<? super T>> {
+
+        private final Comparable[] heap;
+        private final boolean largest;
+        private int size;
+
+        private TopK(int k, boolean largest) {
+            if (k < 0) {
+                throw new IllegalArgumentException("k must not be negative: " + k);
+            }
+            this.heap = new Comparable[k];
+            this.largest = largest;
+        }
+
+        static <T extends Comparable<? super T>> TopK<T> smallest(int k) {
+            return new TopK<>(k, false);
+        }
+
+        static <T extends Comparable<? super T>> TopK<T> largest(int k) {
+            return new TopK<>(k, true);
+        }
+
+        /**
+         * Offers an element, returning <code>true</code> if it was kept.
+         */
+        boolean offer(T x) {
+            if (size < heap.length) {
+                heap[size] = x;
+                swim(size++);
+                return true;
+            }
+            if (size == 0 || !better(x, heap[0])) {
+                return false;
+            }
+            heap[0] = x;
+            sink(0);
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Copies the kept elements best first into <code>dest</code>, which
+         * must have room for {@link #size()} elements. The heap is unchanged.
+         */
+        T[] toArray(T[] dest) {
+            Comparable[] copy = Arrays.copyOf(heap, size);
+            for (int n = size; n > 0; n--) {
+                dest[n - 1] = (T) copy[0];
+                copy[0] = copy[n - 1];
+                sinkIn(copy, 0, n - 1);
+            }
+            return dest;
+        }
+
+        private boolean better(Comparable x, Comparable y) {
+            return largest ? less(y, x) : less(x, y);
+        }
+
+        private void swim(int i) {
+            while (i > 0 && better(heap[(i - 1) / 2], heap[i])) {
+                exch(heap, i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void sink(int i) {
+            sinkIn(heap, i, size);
+        }
+
+        private void sinkIn(Comparable[] h, int i, int n) {
+            while (2 * i + 1 < n) {
+                int j = 2 * i + 1;
+                if (j + 1 < n && better(h[j], h[j + 1])) {
+                    j++;
+                }
+                if (!better(h[i], h[j])) {
+                    break;
+                }
+                exch(h, i, j);
+                i = j;
+            }
+        }
+
+    }
+
+
+    /**
+     * Sorts return a permutation rather than moving elements.
+     *
+     * The keys are left untouched. {@link #stable(Comparable[]) stable} hands
+     * {@link MergeSort} the keys paired with their indices, <code>int</code>
+     * keys packed with the index into a <code>long</code>, and
+     * {@link #quick(Comparable[]) quick} 3-way quick sorts an
+     * <code>int[]</code> of indices in place of the keys. A permutation
+     * can then be applied to any number of parallel arrays with
+     * {@link #reorder(int[], Object...)}.
+     */
+    static final class ArgSort {
+
+        private static final int INSERTION_CUTOFF = 7;
+
+        private ArgSort() {
+        }
+
+        /**
+         * Reorders each array in place so that element <code>i</code> becomes
+         * the element previously at <code>perm[i]</code>.
+         *
+         * Each array is copied and then gathered back in order, which reads
+         * the copy at random but writes sequentially and keeps the loop free
+         * of calls.
+         *
+         * @param   perm
+         *          Permutation as returned by the argsorts.
+         * @param   arrays
+         *          Object, <code>int</code>, <code>long</code> or
+         *          <code>double</code> arrays, each as long as
+         *          <code>perm</code>.
+         * @throws  IllegalArgumentException
+         *          If <code>perm</code> is not a permutation, an array has a
+         *          different length or an unsupported type.
+         */
+        static void reorder(int[] perm, Object... arrays) {
+            int n = perm.length;
+            for (int c = 0; c < arrays.length; c++) {
+                int len = length(arrays[c]);
+                if (len != n) {
+                    throw new IllegalArgumentException(
+                            "Array " + c + " has length " + len + ", expected " + n);
+                }
+            }
+            boolean[] seen = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                int j = perm[i];
+                if (j < 0 || j >= n || seen[j]) {
+                    throw new IllegalArgumentException("Not a permutation at index " + i + ": " + j);
+                }
+                seen[j] = true;
+            }
+            for (Object array : arrays) {
+                if (array instanceof Object[]) {
+                    Object[] a = (Object[]) array;
+                    Object[] src = a.clone();
+                    for (int i = 0; i < n; i++) {
+                        a[i] = src[perm[i]];
+                    }
+                } else if (array instanceof int[]) {
+                    int[] a = (int[]) array;
+                    int[] src = a.clone();
+                    for (int i = 0; i < n; i++) {
+                        a[i] = src[perm[i]];
+                    }
+                } else if (array instanceof long[]) {
+                    long[] a = (long[]) array;
+                    long[] src = a.clone();
+                    for (int i = 0; i < n; i++) {
+                        a[i] = src[perm[i]];
+                    }
+                } else {
+                    double[] a = (double[]) array;
+                    double[] src = a.clone();
+                    for (int i = 0; i < n; i++) {
+                        a[i] = src[perm[i]];
+                    }
+                }
+            }
+        }
+
+        private static int length(Object array) {
+            if (array instanceof Object[]) {
+                return ((Object[]) array).length;
+            } else if (array instanceof int[]) {
+                return ((int[]) array).length;
+            } else if (array instanceof long[]) {
+                return ((long[]) array).length;
+            } else if (array instanceof double[]) {
+                return ((double[]) array).length;
+            }
+            throw new IllegalArgumentException("Unsupported array type: "
+                                               + (array == null ? "null" : array.getClass().getSimpleName()));
+        }
+
+        private static int[] identity(int n) {
+            int[] p = new int[n];
+            for (int i = 0; i < n; i++) {
+                p[i] = i;
+            }
+            return p;
+        }
+
+        /**
+         * Stable argsort, equal keys keep their original relative order.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] stable(Comparable[] keys) {
+            Indexed[] idx = new Indexed[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                idx[i] = new Indexed(keys[i], i);
+            }
+            return stable(idx);
+        }
+
+        /**
+         * Argsort by 3-way quick sort, the order of equal keys is arbitrary.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] quick(Comparable[] keys) {
+            int[] p = identity(keys.length);
+            quickSort(keys, p, 0, p.length - 1);
+            return p;
+        }
+
+        private static void quickSort(Comparable[] keys, int[] p, int lo, int hi) {
+            if (hi - lo < INSERTION_CUTOFF) {
+                insertionSort(keys, p, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            exch(p, lo, less(keys[p[lo]], keys[p[mid]])
+                        ? (less(keys[p[mid]], keys[p[hi]]) ? mid : less(keys[p[lo]], keys[p[hi]]) ? hi : lo)
+                        : (less(keys[p[hi]], keys[p[mid]]) ? mid : less(keys[p[hi]], keys[p[lo]]) ? hi : lo));
+            Comparable v = keys[p[lo]];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(keys[p[i]], v);
+                if (cmp < 0) {
+                    exch(p, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(p, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            quickSort(keys, p, lo, lt - 1);
+            quickSort(keys, p, gt + 1, hi);
+        }
+
+        private static void insertionSort(Comparable[] keys, int[] p, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(keys[p[j]], keys[p[j - 1]]); j--) {
+                    exch(p, j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Stable argsort, equal keys keep their original relative order.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] stable(int[] keys) {
+            // Key in the high word and index in the low, so ties are
+            // already in index order.
+            long[] packed = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                packed[i] = (long) keys[i] << 32 | i;
+            }
+            new MergeSort().sortImpl(packed);
+            int[] p = new int[keys.length];
+            for (int i = 0; i < p.length; i++) {
+                p[i] = (int) packed[i];
+            }
+            return p;
+        }
+
+        /**
+         * Argsort by 3-way quick sort, the order of equal keys is arbitrary.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] quick(int[] keys) {
+            int[] p = identity(keys.length);
+            quickSort(keys, p, 0, p.length - 1);
+            return p;
+        }
+
+        private static void quickSort(int[] keys, int[] p, int lo, int hi) {
+            if (hi - lo < INSERTION_CUTOFF) {
+                insertionSort(keys, p, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            exch(p, lo, less(keys[p[lo]], keys[p[mid]])
+                        ? (less(keys[p[mid]], keys[p[hi]]) ? mid : less(keys[p[lo]], keys[p[hi]]) ? hi : lo)
+                        : (less(keys[p[hi]], keys[p[mid]]) ? mid : less(keys[p[hi]], keys[p[lo]]) ? hi : lo));
+            int v = keys[p[lo]];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(keys[p[i]], v);
+                if (cmp < 0) {
+                    exch(p, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(p, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            quickSort(keys, p, lo, lt - 1);
+            quickSort(keys, p, gt + 1, hi);
+        }
+
+        private static void insertionSort(int[] keys, int[] p, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(keys[p[j]], keys[p[j - 1]]); j--) {
+                    exch(p, j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Stable argsort, equal keys keep their original relative order.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] stable(long[] keys) {
+            Indexed[] idx = new Indexed[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                idx[i] = new Indexed(keys[i], i);
+            }
+            return stable(idx);
+        }
+
+        /**
+         * Argsort by 3-way quick sort, the order of equal keys is arbitrary.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] quick(long[] keys) {
+            int[] p = identity(keys.length);
+            quickSort(keys, p, 0, p.length - 1);
+            return p;
+        }
+
+        private static void quickSort(long[] keys, int[] p, int lo, int hi) {
+            if (hi - lo < INSERTION_CUTOFF) {
+                insertionSort(keys, p, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            exch(p, lo, less(keys[p[lo]], keys[p[mid]])
+                        ? (less(keys[p[mid]], keys[p[hi]]) ? mid : less(keys[p[lo]], keys[p[hi]]) ? hi : lo)
+                        : (less(keys[p[hi]], keys[p[mid]]) ? mid : less(keys[p[hi]], keys[p[lo]]) ? hi : lo));
+            long v = keys[p[lo]];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(keys[p[i]], v);
+                if (cmp < 0) {
+                    exch(p, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(p, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            quickSort(keys, p, lo, lt - 1);
+            quickSort(keys, p, gt + 1, hi);
+        }
+
+        private static void insertionSort(long[] keys, int[] p, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(keys[p[j]], keys[p[j - 1]]); j--) {
+                    exch(p, j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Stable argsort, equal keys keep their original relative order.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] stable(double[] keys) {
+            Indexed[] idx = new Indexed[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                idx[i] = new Indexed(keys[i], i);
+            }
+            return stable(idx);
+        }
+
+        /**
+         * Argsort by 3-way quick sort, the order of equal keys is arbitrary.
+         *
+         * @return  Permutation <code>p</code> such that
+         *          <code>keys[p[0]], keys[p[1]], ...</code> is sorted.
+         */
+        static int[] quick(double[] keys) {
+            int[] p = identity(keys.length);
+            quickSort(keys, p, 0, p.length - 1);
+            return p;
+        }
+
+        private static void quickSort(double[] keys, int[] p, int lo, int hi) {
+            if (hi - lo < INSERTION_CUTOFF) {
+                insertionSort(keys, p, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            exch(p, lo, less(keys[p[lo]], keys[p[mid]])
+                        ? (less(keys[p[mid]], keys[p[hi]]) ? mid : less(keys[p[lo]], keys[p[hi]]) ? hi : lo)
+                        : (less(keys[p[hi]], keys[p[mid]]) ? mid : less(keys[p[hi]], keys[p[lo]]) ? hi : lo));
+            double v = keys[p[lo]];
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int cmp = compare(keys[p[i]], v);
+                if (cmp < 0) {
+                    exch(p, lt++, i++);
+                } else if (cmp > 0) {
+                    exch(p, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            quickSort(keys, p, lo, lt - 1);
+            quickSort(keys, p, gt + 1, hi);
+        }
+
+        private static void insertionSort(double[] keys, int[] p, int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && less(keys[p[j]], keys[p[j - 1]]); j--) {
+                    exch(p, j, j - 1);
+                }
+            }
+        }
+
+
+        /**
+         * Sorts the pairs with {@link MergeSort}, which is stable, and returns
+         * their indices in sorted order.
+         */
+        private static int[] stable(Indexed[] idx) {
+            new MergeSort().sortImpl(idx);
+            int[] p = new int[idx.length];
+            for (int i = 0; i < p.length; i++) {
+                p[i] = idx[i].index;
+            }
+            return p;
+        }
+
+
+        /**
+         * A key and its original index, ordered by key alone.
+         */
+        private static final class Indexed implements Comparable<Indexed> {
+
+            private final Comparable key;
+            private final int index;
+
+            Indexed(Comparable key, int index) {
+                this.key = key;
+                this.index = index;
+            }
+
+            @Override
+            public int compareTo(Indexed o) {
+                return key.compareTo(o.key);
+            }
+
+        }
+
+    }
+
+
+    /**
+     * Stable adaptive merge sort that works with the order already present in
+     * the input, in the manner of TimSort.
+     *
+     * The input is scanned for natural runs, descending runs are reversed and
+     * runs shorter than a minimum are extended with binary insertion. Runs are
+     * kept on a stack and merged so their lengths stay balanced, each merge
+     * first gallops to skip the parts of both runs already in place and then
+     * gallops through long streaks from one side. Sorted, reverse sorted and
+     * nearly sorted input take close to linear time.
+     */
+    static final class AdaptiveMergeSort extends Sorter {
+
+        /** Arrays shorter than this are sorted by binary insertion alone. */
+        private static final int MIN_MERGE = 32;
+
+        /** Consecutive wins by one side of a merge before it starts galloping. */
+        private static final int MIN_GALLOP = 7;
+
+        /** Run lengths grow at least as fast as Fibonacci so this bounds any int length. */
+        private static final int MAX_RUNS = 64;
+
+        @Override
+        public void sortImpl(Comparable[] arr) {
+            new ComparableRuns(arr).sort();
+        }
+
+        @Override
+        public void sortImpl(int[] arr) {
+            new IntRuns(arr).sort();
+        }
+
+        @Override
+        public void sortImpl(long[] arr) {
+            new LongRuns(arr).sort();
+        }
+
+        @Override
+        public void sortImpl(double[] arr) {
+            new DoubleRuns(arr).sort();
+        }
+
+        /**
+         * Minimum run length for an array of <code>n</code>, chosen so that
+         * <code>n / minRun</code> is a power of two or just below one, which
+         * keeps the final merges balanced.
+         */
+        private static int minRunLength(int n) {
+            int r = 0;
+            while (n >= MIN_MERGE) {
+                r |= n & 1;
+                n >>= 1;
+            }
+            return n + r;
+        }
+
+        /**
+         * Run stack and merge buffer for sorting one <code>Comparable[]</code>.
+         */
+        private static final class ComparableRuns {
+
+            private final Comparable[] a;
+            private Comparable[] tmp;
+            private final int[] runBase = new int[MAX_RUNS];
+            private final int[] runLen = new int[MAX_RUNS];
+            private int stackSize;
+
+            ComparableRuns(Comparable[] a) {
+                this.a = a;
+            }
+
+            void sort() {
+                int n = a.length;
+                if (n < 2) {
+                    return;
+                }
+                int minRun = minRunLength(n);
+                int lo = 0;
+                while (lo < n) {
+                    int run = countRunAndMakeAscending(lo, n);
+                    if (run < minRun) {
+                        int force = Math.min(n - lo, minRun);
+                        binaryInsertionSort(lo, lo + force, lo + run);
+                        run = force;
+                    }
+                    runBase[stackSize] = lo;
+                    runLen[stackSize++] = run;
+                    mergeCollapse();
+                    lo += run;
+                }
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] < runLen[i + 1]) {
+                        i--;
+                    }
+                    mergeAt(i);
+                }
+            }
+
+            /**
+             * Length of the run starting at <code>lo</code>, reversing it if
+             * strictly descending so it can be merged as ascending.
+             */
+            private int countRunAndMakeAscending(int lo, int hi) {
+                int runHi = lo + 1;
+                if (runHi == hi) {
+                    return 1;
+                }
+                if (less(a[runHi++], a[lo])) {
+                    while (runHi < hi && less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                    for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                        exch(a, i, j);
+                    }
+                } else {
+                    while (runHi < hi && !less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                }
+                return runHi - lo;
+            }
+
+            /**
+             * Extends the sorted range <code>a[lo..start)</code> to
+             * <code>a[lo..hi)</code>, binary searching each insertion point.
+             */
+            private void binaryInsertionSort(int lo, int hi, int start) {
+                for (int i = start; i < hi; i++) {
+                    Comparable pivot = a[i];
+                    int left = lo;
+                    int right = i;
+                    while (left < right) {
+                        int mid = (left + right) >>> 1;
+                        if (less(pivot, a[mid])) {
+                            right = mid;
+                        } else {
+                            left = mid + 1;
+                        }
+                    }
+                    System.arraycopy(a, left, a, left + 1, i - left);
+                    a[left] = pivot;
+                    Metrics.add(Counter.ARRAY_WRITES, i - left + 1);
+                }
+            }
+
+            /**
+             * Merges until every run is longer than the two above it together
+             * and longer than the one above it.
+             */
+            private void mergeCollapse() {
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]
+                            || i > 1 && runLen[i - 2] <= runLen[i] + runLen[i - 1]) {
+                        if (runLen[i - 1] < runLen[i + 1]) {
+                            i--;
+                        }
+                    } else if (runLen[i] > runLen[i + 1]) {
+                        break;
+                    }
+                    mergeAt(i);
+                }
+            }
+
+            /**
+             * Merges runs <code>i</code> and <code>i + 1</code>.
+             *
+             * Elements of the first run that are already before the whole of
+             * the second, and those of the second already after the whole of
+             * the first, are found by galloping and left where they are. Two
+             * runs already in order cost only a couple of compares.
+             */
+            private void mergeAt(int i) {
+                int base1 = runBase[i];
+                int len1 = runLen[i];
+                int base2 = runBase[i + 1];
+                int len2 = runLen[i + 1];
+                runLen[i] = len1 + len2;
+                if (i == stackSize - 3) {
+                    runBase[i + 1] = runBase[i + 2];
+                    runLen[i + 1] = runLen[i + 2];
+                }
+                stackSize--;
+
+                int k = gallopRight(a[base2], a, base1, len1);
+                base1 += k;
+                len1 -= k;
+                if (len1 == 0) {
+                    return;
+                }
+                len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2);
+                if (len2 == 0) {
+                    return;
+                }
+                mergeLo(base1, len1, base2, len2);
+            }
+
+            /**
+             * Merges the adjacent runs by copying the first to the buffer.
+             * Once one side wins {@link #MIN_GALLOP} times in a row its
+             * following elements are galloped over and copied in bulk.
+             */
+            private void mergeLo(int base1, int len1, int base2, int len2) {
+                if (tmp == null || tmp.length < len1) {
+                    tmp = new Comparable[Math.max(len1, Math.min(a.length, 256))];
+                }
+                System.arraycopy(a, base1, tmp, 0, len1);
+                Metrics.add(Counter.ARRAY_READS, len1);
+                Metrics.add(Counter.ARRAY_WRITES, len1);
+                int c1 = 0;
+                int c2 = base2;
+                int end2 = base2 + len2;
+                int dest = base1;
+                int wins1 = 0;
+                int wins2 = 0;
+                while (c1 < len1 && c2 < end2) {
+                    if (less(a[c2], tmp[c1])) {
+                        a[dest++] = a[c2++];
+                        wins1 = 0;
+                        if (++wins2 >= MIN_GALLOP && c2 < end2) {
+                            int k = gallopLeft(tmp[c1], a, c2, end2 - c2);
+                            System.arraycopy(a, c2, a, dest, k);
+                            dest += k;
+                            c2 += k;
+                            wins2 = 0;
+                        }
+                    } else {
+                        a[dest++] = tmp[c1++];
+                        wins2 = 0;
+                        if (++wins1 >= MIN_GALLOP && c1 < len1) {
+                            int k = gallopRight(a[c2], tmp, c1, len1 - c1);
+                            System.arraycopy(tmp, c1, a, dest, k);
+                            dest += k;
+                            c1 += k;
+                            wins1 = 0;
+                        }
+                    }
+                }
+                // Whatever is left of the second run is already in place.
+                System.arraycopy(tmp, c1, a, dest, len1 - c1);
+                Metrics.add(Counter.ARRAY_READS, dest - base1 + len1 - c1);
+                Metrics.add(Counter.ARRAY_WRITES, dest - base1 + len1 - c1);
+            }
+
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * less than or equal to <code>key</code>.
+             */
+            private static int gallopRight(Comparable key, Comparable[] arr, int base, int len) {
+                if (less(key, arr[base])) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && !less(key, arr[base + ofs])) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(key, arr[base + m])) {
+                        hi = m;
+                    } else {
+                        lo = m + 1;
+                    }
+                }
+                return lo;
+            }
+
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * strictly less than <code>key</code>.
+             */
+            private static int gallopLeft(Comparable key, Comparable[] arr, int base, int len) {
+                if (!less(arr[base], key)) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && less(arr[base + ofs], key)) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(arr[base + m], key)) {
+                        lo = m + 1;
+                    } else {
+                        hi = m;
+                    }
+                }
+                return lo;
+            }
+
+        }
+
+        /**
+         * Run stack and merge buffer for sorting one <code>int[]</code>.
+         */
+        private static final class IntRuns {
+
+            private final int[] a;
+            private int[] tmp;
+            private final int[] runBase = new int[MAX_RUNS];
+            private final int[] runLen = new int[MAX_RUNS];
+            private int stackSize;
+
+            IntRuns(int[] a) {
+                this.a = a;
+            }
+
+            void sort() {
+                int n = a.length;
+                if (n < 2) {
+                    return;
+                }
+                int minRun = minRunLength(n);
+                int lo = 0;
+                while (lo < n) {
+                    int run = countRunAndMakeAscending(lo, n);
+                    if (run < minRun) {
+                        int force = Math.min(n - lo, minRun);
+                        binaryInsertionSort(lo, lo + force, lo + run);
+                        run = force;
+                    }
+                    runBase[stackSize] = lo;
+                    runLen[stackSize++] = run;
+                    mergeCollapse();
+                    lo += run;
+                }
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] < runLen[i + 1]) {
+                        i--;
+                    }
+                    mergeAt(i);
+                }
+            }
+
+            /**
+             * Length of the run starting at <code>lo</code>, reversing it if
+             * strictly descending so it can be merged as ascending.
+             */
+            private int countRunAndMakeAscending(int lo, int hi) {
+                int runHi = lo + 1;
+                if (runHi == hi) {
+                    return 1;
+                }
+                if (less(a[runHi++], a[lo])) {
+                    while (runHi < hi && less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                    for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                        exch(a, i, j);
+                    }
+                } else {
+                    while (runHi < hi && !less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                }
+                return runHi - lo;
+            }
+
+            /**
+             * Extends the sorted range <code>a[lo..start)</code> to
+             * <code>a[lo..hi)</code>, binary searching each insertion point.
+             */
+            private void binaryInsertionSort(int lo, int hi, int start) {
+                for (int i = start; i < hi; i++) {
+                    int pivot = a[i];
+                    int left = lo;
+                    int right = i;
+                    while (left < right) {
+                        int mid = (left + right) >>> 1;
+                        if (less(pivot, a[mid])) {
+                            right = mid;
+                        } else {
+                            left = mid + 1;
+                        }
+                    }
+                    System.arraycopy(a, left, a, left + 1, i - left);
+                    a[left] = pivot;
+                    Metrics.add(Counter.ARRAY_WRITES, i - left + 1);
+                }
+            }
+
+            /**
+             * Merges until every run is longer than the two above it together
+             * and longer than the one above it.
+             */
+            private void mergeCollapse() {
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]
+                            || i > 1 && runLen[i - 2] <= runLen[i] + runLen[i - 1]) {
+                        if (runLen[i - 1] < runLen[i + 1]) {
+                            i--;
+                        }
+                    } else if (runLen[i] > runLen[i + 1]) {
+                        break;
+                    }
+                    mergeAt(i);
+                }
+            }
+
+            /**
+             * Merges runs <code>i</code> and <code>i + 1</code>.
+             *
+             * Elements of the first run that are already before the whole of
+             * the second, and those of the second already after the whole of
+             * the first, are found by galloping and left where they are. Two
+             * runs already in order cost only a couple of compares.
+             */
+            private void mergeAt(int i) {
+                int base1 = runBase[i];
+                int len1 = runLen[i];
+                int base2 = runBase[i + 1];
+                int len2 = runLen[i + 1];
+                runLen[i] = len1 + len2;
+                if (i == stackSize - 3) {
+                    runBase[i + 1] = runBase[i + 2];
+                    runLen[i + 1] = runLen[i + 2];
+                }
+                stackSize--;
+
+                int k = gallopRight(a[base2], a, base1, len1);
+                base1 += k;
+                len1 -= k;
+                if (len1 == 0) {
+                    return;
+                }
+                len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2);
+                if (len2 == 0) {
+                    return;
+                }
+                mergeLo(base1, len1, base2, len2);
+            }
+
+            /**
+             * Merges the adjacent runs by copying the first to the buffer.
+             * Once one side wins {@link #MIN_GALLOP} times in a row its
+             * following elements are galloped over and copied in bulk.
+             */
+            private void mergeLo(int base1, int len1, int base2, int len2) {
+                if (tmp == null || tmp.length < len1) {
+                    tmp = new int[Math.max(len1, Math.min(a.length, 256))];
+                }
+                System.arraycopy(a, base1, tmp, 0, len1);
+                Metrics.add(Counter.ARRAY_READS, len1);
+                Metrics.add(Counter.ARRAY_WRITES, len1);
+                int c1 = 0;
+                int c2 = base2;
+                int end2 = base2 + len2;
+                int dest = base1;
+                int wins1 = 0;
+                int wins2 = 0;
+                while (c1 < len1 && c2 < end2) {
+                    if (less(a[c2], tmp[c1])) {
+                        a[dest++] = a[c2++];
+                        wins1 = 0;
+                        if (++wins2 >= MIN_GALLOP && c2 < end2) {
+                            int k = gallopLeft(tmp[c1], a, c2, end2 - c2);
+                            System.arraycopy(a, c2, a, dest, k);
+                            dest += k;
+                            c2 += k;
+                            wins2 = 0;
+                        }
+                    } else {
+                        a[dest++] = tmp[c1++];
+                        wins2 = 0;
+                        if (++wins1 >= MIN_GALLOP && c1 < len1) {
+                            int k = gallopRight(a[c2], tmp, c1, len1 - c1);
+                            System.arraycopy(tmp, c1, a, dest, k);
+                            dest += k;
+                            c1 += k;
+                            wins1 = 0;
+                        }
+                    }
+                }
+                // Whatever is left of the second run is already in place.
+                System.arraycopy(tmp, c1, a, dest, len1 - c1);
+                Metrics.add(Counter.ARRAY_READS, dest - base1 + len1 - c1);
+                Metrics.add(Counter.ARRAY_WRITES, dest - base1 + len1 - c1);
+            }
+
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * less than or equal to <code>key</code>.
+             */
+            private static int gallopRight(int key, int[] arr, int base, int len) {
+                if (less(key, arr[base])) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && !less(key, arr[base + ofs])) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(key, arr[base + m])) {
+                        hi = m;
+                    } else {
+                        lo = m + 1;
+                    }
+                }
+                return lo;
+            }
+
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * strictly less than <code>key</code>.
+             */
+            private static int gallopLeft(int key, int[] arr, int base, int len) {
+                if (!less(arr[base], key)) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && less(arr[base + ofs], key)) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(arr[base + m], key)) {
+                        lo = m + 1;
+                    } else {
+                        hi = m;
+                    }
+                }
+                return lo;
+            }
+
+        }
+
+        /**
+         * Run stack and merge buffer for sorting one <code>long[]</code>.
+         */
+        private static final class LongRuns {
 
-            while (true) {
-                while (less(arr[++i], v)) {
-                    if (i == endI) {
+            private final long[] a;
+            private long[] tmp;
+            private final int[] runBase = new int[MAX_RUNS];
+            private final int[] runLen = new int[MAX_RUNS];
+            private int stackSize;
+
+            LongRuns(long[] a) {
+                this.a = a;
+            }
+
+            void sort() {
+                int n = a.length;
+                if (n < 2) {
+                    return;
+                }
+                int minRun = minRunLength(n);
+                int lo = 0;
+                while (lo < n) {
+                    int run = countRunAndMakeAscending(lo, n);
+                    if (run < minRun) {
+                        int force = Math.min(n - lo, minRun);
+                        binaryInsertionSort(lo, lo + force, lo + run);
+                        run = force;
+                    }
+                    runBase[stackSize] = lo;
+                    runLen[stackSize++] = run;
+                    mergeCollapse();
+                    lo += run;
+                }
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] < runLen[i + 1]) {
+                        i--;
+                    }
+                    mergeAt(i);
+                }
+            }
+
+            /**
+             * Length of the run starting at <code>lo</code>, reversing it if
+             * strictly descending so it can be merged as ascending.
+             */
+            private int countRunAndMakeAscending(int lo, int hi) {
+                int runHi = lo + 1;
+                if (runHi == hi) {
+                    return 1;
+                }
+                if (less(a[runHi++], a[lo])) {
+                    while (runHi < hi && less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                    for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                        exch(a, i, j);
+                    }
+                } else {
+                    while (runHi < hi && !less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                }
+                return runHi - lo;
+            }
+
+            /**
+             * Extends the sorted range <code>a[lo..start)</code> to
+             * <code>a[lo..hi)</code>, binary searching each insertion point.
+             */
+            private void binaryInsertionSort(int lo, int hi, int start) {
+                for (int i = start; i < hi; i++) {
+                    long pivot = a[i];
+                    int left = lo;
+                    int right = i;
+                    while (left < right) {
+                        int mid = (left + right) >>> 1;
+                        if (less(pivot, a[mid])) {
+                            right = mid;
+                        } else {
+                            left = mid + 1;
+                        }
+                    }
+                    System.arraycopy(a, left, a, left + 1, i - left);
+                    a[left] = pivot;
+                    Metrics.add(Counter.ARRAY_WRITES, i - left + 1);
+                }
+            }
+
+            /**
+             * Merges until every run is longer than the two above it together
+             * and longer than the one above it.
+             */
+            private void mergeCollapse() {
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]
+                            || i > 1 && runLen[i - 2] <= runLen[i] + runLen[i - 1]) {
+                        if (runLen[i - 1] < runLen[i + 1]) {
+                            i--;
+                        }
+                    } else if (runLen[i] > runLen[i + 1]) {
                         break;
                     }
+                    mergeAt(i);
                 }
+            }
 
-                while (less(v, arr[--j])) {
-//                    if (j == startI) {
-//                        break;
-//                    }
+            /**
+             * Merges runs <code>i</code> and <code>i + 1</code>.
+             *
+             * Elements of the first run that are already before the whole of
+             * the second, and those of the second already after the whole of
+             * the first, are found by galloping and left where they are. Two
+             * runs already in order cost only a couple of compares.
+             */
+            private void mergeAt(int i) {
+                int base1 = runBase[i];
+                int len1 = runLen[i];
+                int base2 = runBase[i + 1];
+                int len2 = runLen[i + 1];
+                runLen[i] = len1 + len2;
+                if (i == stackSize - 3) {
+                    runBase[i + 1] = runBase[i + 2];
+                    runLen[i + 1] = runLen[i + 2];
                 }
+                stackSize--;
 
-                if (i >= j) {
-                    break;
+                int k = gallopRight(a[base2], a, base1, len1);
+                base1 += k;
+                len1 -= k;
+                if (len1 == 0) {
+                    return;
+                }
+                len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2);
+                if (len2 == 0) {
+                    return;
                 }
+                mergeLo(base1, len1, base2, len2);
+            }
 
-                exch(arr, i, j);
+            /**
+             * Merges the adjacent runs by copying the first to the buffer.
+             * Once one side wins {@link #MIN_GALLOP} times in a row its
+             * following elements are galloped over and copied in bulk.
+             */
+            private void mergeLo(int base1, int len1, int base2, int len2) {
+                if (tmp == null || tmp.length < len1) {
+                    tmp = new long[Math.max(len1, Math.min(a.length, 256))];
+                }
+                System.arraycopy(a, base1, tmp, 0, len1);
+                Metrics.add(Counter.ARRAY_READS, len1);
+                Metrics.add(Counter.ARRAY_WRITES, len1);
+                int c1 = 0;
+                int c2 = base2;
+                int end2 = base2 + len2;
+                int dest = base1;
+                int wins1 = 0;
+                int wins2 = 0;
+                while (c1 < len1 && c2 < end2) {
+                    if (less(a[c2], tmp[c1])) {
+                        a[dest++] = a[c2++];
+                        wins1 = 0;
+                        if (++wins2 >= MIN_GALLOP && c2 < end2) {
+                            int k = gallopLeft(tmp[c1], a, c2, end2 - c2);
+                            System.arraycopy(a, c2, a, dest, k);
+                            dest += k;
+                            c2 += k;
+                            wins2 = 0;
+                        }
+                    } else {
+                        a[dest++] = tmp[c1++];
+                        wins2 = 0;
+                        if (++wins1 >= MIN_GALLOP && c1 < len1) {
+                            int k = gallopRight(a[c2], tmp, c1, len1 - c1);
+                            System.arraycopy(tmp, c1, a, dest, k);
+                            dest += k;
+                            c1 += k;
+                            wins1 = 0;
+                        }
+                    }
+                }
+                // Whatever is left of the second run is already in place.
+                System.arraycopy(tmp, c1, a, dest, len1 - c1);
+                Metrics.add(Counter.ARRAY_READS, dest - base1 + len1 - c1);
+                Metrics.add(Counter.ARRAY_WRITES, dest - base1 + len1 - c1);
             }
-            exch(arr, startI, j);
-            return j;
 
-//            int leftIdx = -1;
-//            int rightIdx = -1;
-//            int j;
-//            for (j = startI; j < endI; j++) {
-//                if (!less(arr[j], arr[startI])) {
-//                    leftIdx = j;
-//                    break;
-//                }
-//            }
-//            for (j = arr.length - 1; j >= 0; j--) {
-//                if (less(arr[j], arr[startI])) {
-//                    rightIdx = j;
-//                    break;
-//                }
-//            }
-//            if (leftIdx >= 0 && rightIdx >= 0) {
-//                exch(arr, leftIdx, rightIdx);
-//            }
-//            return j;
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * less than or equal to <code>key</code>.
+             */
+            private static int gallopRight(long key, long[] arr, int base, int len) {
+                if (less(key, arr[base])) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && !less(key, arr[base + ofs])) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(key, arr[base + m])) {
+                        hi = m;
+                    } else {
+                        lo = m + 1;
+                    }
+                }
+                return lo;
+            }
+
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * strictly less than <code>key</code>.
+             */
+            private static int gallopLeft(long key, long[] arr, int base, int len) {
+                if (!less(arr[base], key)) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && less(arr[base + ofs], key)) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(arr[base + m], key)) {
+                        lo = m + 1;
+                    } else {
+                        hi = m;
+                    }
+                }
+                return lo;
+            }
+
+        }
+
+        /**
+         * Run stack and merge buffer for sorting one <code>double[]</code>.
+         */
+        private static final class DoubleRuns {
+
+            private final double[] a;
+            private double[] tmp;
+            private final int[] runBase = new int[MAX_RUNS];
+            private final int[] runLen = new int[MAX_RUNS];
+            private int stackSize;
+
+            DoubleRuns(double[] a) {
+                this.a = a;
+            }
+
+            void sort() {
+                int n = a.length;
+                if (n < 2) {
+                    return;
+                }
+                int minRun = minRunLength(n);
+                int lo = 0;
+                while (lo < n) {
+                    int run = countRunAndMakeAscending(lo, n);
+                    if (run < minRun) {
+                        int force = Math.min(n - lo, minRun);
+                        binaryInsertionSort(lo, lo + force, lo + run);
+                        run = force;
+                    }
+                    runBase[stackSize] = lo;
+                    runLen[stackSize++] = run;
+                    mergeCollapse();
+                    lo += run;
+                }
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] < runLen[i + 1]) {
+                        i--;
+                    }
+                    mergeAt(i);
+                }
+            }
+
+            /**
+             * Length of the run starting at <code>lo</code>, reversing it if
+             * strictly descending so it can be merged as ascending.
+             */
+            private int countRunAndMakeAscending(int lo, int hi) {
+                int runHi = lo + 1;
+                if (runHi == hi) {
+                    return 1;
+                }
+                if (less(a[runHi++], a[lo])) {
+                    while (runHi < hi && less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                    for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                        exch(a, i, j);
+                    }
+                } else {
+                    while (runHi < hi && !less(a[runHi], a[runHi - 1])) {
+                        runHi++;
+                    }
+                }
+                return runHi - lo;
+            }
+
+            /**
+             * Extends the sorted range <code>a[lo..start)</code> to
+             * <code>a[lo..hi)</code>, binary searching each insertion point.
+             */
+            private void binaryInsertionSort(int lo, int hi, int start) {
+                for (int i = start; i < hi; i++) {
+                    double pivot = a[i];
+                    int left = lo;
+                    int right = i;
+                    while (left < right) {
+                        int mid = (left + right) >>> 1;
+                        if (less(pivot, a[mid])) {
+                            right = mid;
+                        } else {
+                            left = mid + 1;
+                        }
+                    }
+                    System.arraycopy(a, left, a, left + 1, i - left);
+                    a[left] = pivot;
+                    Metrics.add(Counter.ARRAY_WRITES, i - left + 1);
+                }
+            }
+
+            /**
+             * Merges until every run is longer than the two above it together
+             * and longer than the one above it.
+             */
+            private void mergeCollapse() {
+                while (stackSize > 1) {
+                    int i = stackSize - 2;
+                    if (i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]
+                            || i > 1 && runLen[i - 2] <= runLen[i] + runLen[i - 1]) {
+                        if (runLen[i - 1] < runLen[i + 1]) {
+                            i--;
+                        }
+                    } else if (runLen[i] > runLen[i + 1]) {
+                        break;
+                    }
+                    mergeAt(i);
+                }
+            }
+
+            /**
+             * Merges runs <code>i</code> and <code>i + 1</code>.
+             *
+             * Elements of the first run that are already before the whole of
+             * the second, and those of the second already after the whole of
+             * the first, are found by galloping and left where they are. Two
+             * runs already in order cost only a couple of compares.
+             */
+            private void mergeAt(int i) {
+                int base1 = runBase[i];
+                int len1 = runLen[i];
+                int base2 = runBase[i + 1];
+                int len2 = runLen[i + 1];
+                runLen[i] = len1 + len2;
+                if (i == stackSize - 3) {
+                    runBase[i + 1] = runBase[i + 2];
+                    runLen[i + 1] = runLen[i + 2];
+                }
+                stackSize--;
+
+                int k = gallopRight(a[base2], a, base1, len1);
+                base1 += k;
+                len1 -= k;
+                if (len1 == 0) {
+                    return;
+                }
+                len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2);
+                if (len2 == 0) {
+                    return;
+                }
+                mergeLo(base1, len1, base2, len2);
+            }
+
+            /**
+             * Merges the adjacent runs by copying the first to the buffer.
+             * Once one side wins {@link #MIN_GALLOP} times in a row its
+             * following elements are galloped over and copied in bulk.
+             */
+            private void mergeLo(int base1, int len1, int base2, int len2) {
+                if (tmp == null || tmp.length < len1) {
+                    tmp = new double[Math.max(len1, Math.min(a.length, 256))];
+                }
+                System.arraycopy(a, base1, tmp, 0, len1);
+                Metrics.add(Counter.ARRAY_READS, len1);
+                Metrics.add(Counter.ARRAY_WRITES, len1);
+                int c1 = 0;
+                int c2 = base2;
+                int end2 = base2 + len2;
+                int dest = base1;
+                int wins1 = 0;
+                int wins2 = 0;
+                while (c1 < len1 && c2 < end2) {
+                    if (less(a[c2], tmp[c1])) {
+                        a[dest++] = a[c2++];
+                        wins1 = 0;
+                        if (++wins2 >= MIN_GALLOP && c2 < end2) {
+                            int k = gallopLeft(tmp[c1], a, c2, end2 - c2);
+                            System.arraycopy(a, c2, a, dest, k);
+                            dest += k;
+                            c2 += k;
+                            wins2 = 0;
+                        }
+                    } else {
+                        a[dest++] = tmp[c1++];
+                        wins2 = 0;
+                        if (++wins1 >= MIN_GALLOP && c1 < len1) {
+                            int k = gallopRight(a[c2], tmp, c1, len1 - c1);
+                            System.arraycopy(tmp, c1, a, dest, k);
+                            dest += k;
+                            c1 += k;
+                            wins1 = 0;
+                        }
+                    }
+                }
+                // Whatever is left of the second run is already in place.
+                System.arraycopy(tmp, c1, a, dest, len1 - c1);
+                Metrics.add(Counter.ARRAY_READS, dest - base1 + len1 - c1);
+                Metrics.add(Counter.ARRAY_WRITES, dest - base1 + len1 - c1);
+            }
+
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * less than or equal to <code>key</code>.
+             */
+            private static int gallopRight(double key, double[] arr, int base, int len) {
+                if (less(key, arr[base])) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && !less(key, arr[base + ofs])) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(key, arr[base + m])) {
+                        hi = m;
+                    } else {
+                        lo = m + 1;
+                    }
+                }
+                return lo;
+            }
+
+            /**
+             * Number of elements of <code>arr[base..base+len)</code> that are
+             * strictly less than <code>key</code>.
+             */
+            private static int gallopLeft(double key, double[] arr, int base, int len) {
+                if (!less(arr[base], key)) {
+                    return 0;
+                }
+                int lastOfs = 0;
+                int ofs = 1;
+                while (ofs < len && less(arr[base + ofs], key)) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = len;
+                    }
+                }
+                int lo = lastOfs + 1;
+                int hi = Math.min(ofs, len);
+                while (lo < hi) {
+                    int m = (lo + hi) >>> 1;
+                    if (less(arr[base + m], key)) {
+                        lo = m + 1;
+                    } else {
+                        hi = m;
+                    }
+                }
+                return lo;
+            }
+
+        }
+
+    }
+
+
+    /**
+     * Base for sorters specialised to <code>String[]</code> that examine
+     * characters directly rather than comparing whole strings.
+     *
+     * Radix sorts use a radix of 256. If every character of the input is
+     * below 256 each character is one digit, otherwise each character is
+     * split into a high and a low byte digit so any UTF-16 string sorts in
+     * the same order as {@link String#compareTo(String)}.
+     *
+     * These only sort strings so are not a {@link Sorter}, they can not be
+     * handed arrays of other types.
+     */
+    static abstract class StringSorter {
+
+        static final int R = 256;
+
+        /** Subarrays at or below this size are finished by insertion sort. */
+        static final int CUTOFF = 15;
+
+        public void sort(String[] a) {
+            Metrics.Snapshot before = Metrics.ENABLED ? Metrics.snapshot() : null;
+            long start = Metrics.start();
+            Stopwatch sw = new Stopwatch();
+            sortImpl(a);
+            report(getClass(), sw, before, start);
+        }
+
+        abstract void sortImpl(String[] a);
+
+        /**
+         * Whether the radix sorts need two digits per character, true if
+         * any character is 256 or above.
+         *
+         * The width is passed down each sort rather than kept on the sorter
+         * so one instance may sort several arrays at once.
+         */
+        static boolean isWide(String[] a) {
+            for (String s : a) {
+                for (int i = 0; i < s.length(); i++) {
+                    if (s.charAt(i) >= R) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Number of digits in <code>s</code>.
+         */
+        static int digits(String s, boolean wide) {
+            return wide ? s.length() * 2 : s.length();
+        }
+
+        /**
+         * Digit <code>d</code> of <code>s</code>, or -1 past the end.
+         */
+        static int digit(String s, int d, boolean wide) {
+            if (!wide) {
+                return d < s.length() ? s.charAt(d) : -1;
+            }
+            int i = d >> 1;
+            if (i >= s.length()) {
+                return -1;
+            }
+            char c = s.charAt(i);
+            return (d & 1) == 0 ? c >>> 8 : c & 0xff;
+        }
+
+        /**
+         * Insertion sort of <code>a[lo..hi]</code> whose strings are known to
+         * share their first <code>d</code> digits.
+         */
+        static void insertionSort(String[] a, int lo, int hi, int d, boolean wide) {
+            int from = wide ? d >> 1 : d;
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && lessFrom(a[j], a[j - 1], from); j--) {
+                    exch(a, j, j - 1);
+                }
+            }
+        }
+
+        private static boolean lessFrom(String v, String w, int from) {
+            Metrics.increment(Counter.COMPARES);
+            int n = Math.min(v.length(), w.length());
+            for (int i = from; i < n; i++) {
+                char a = v.charAt(i);
+                char b = w.charAt(i);
+                if (a != b) {
+                    return a < b;
+                }
+            }
+            return v.length() < w.length();
+        }
+
+    }
+
+
+    /**
+     * Least significant digit first radix sort.
+     *
+     * Intended for fixed length keys such as plates or account numbers,
+     * shorter keys are treated as if padded with a digit below all others so
+     * mixed lengths still sort correctly, at the cost of a pass for every
+     * digit of the longest key.
+     */
+    static final class LSDStringSort extends StringSorter {
+
+        @Override
+        void sortImpl(String[] a) {
+            boolean wide = isWide(a);
+            int n = a.length;
+            int w = 0;
+            for (String s : a) {
+                w = Math.max(w, digits(s, wide));
+            }
+            String[] aux = new String[n];
+            int[] count = new int[R + 2];
+            for (int d = w - 1; d >= 0; d--) {
+                Arrays.fill(count, 0);
+                for (int i = 0; i < n; i++) {
+                    count[digit(a[i], d, wide) + 2]++;
+                }
+                for (int r = 0; r < R + 1; r++) {
+                    count[r + 1] += count[r];
+                }
+                for (int i = 0; i < n; i++) {
+                    aux[count[digit(a[i], d, wide) + 1]++] = a[i];
+                }
+                System.arraycopy(aux, 0, a, 0, n);
+                Metrics.add(Counter.ARRAY_READS, 3L * n);
+                Metrics.add(Counter.ARRAY_WRITES, 2L * n);
+            }
+        }
+
+    }
+
+
+    /**
+     * Most significant digit first radix sort with a cutoff to insertion sort
+     * for small subarrays.
+     */
+    static final class MSDStringSort extends StringSorter {
+
+        @Override
+        void sortImpl(String[] a) {
+            String[] aux = new String[a.length];
+            sort(a, aux, 0, a.length - 1, 0, isWide(a));
+        }
+
+        private static void sort(String[] a, String[] aux, int lo, int hi, int d, boolean wide) {
+            if (hi <= lo + CUTOFF) {
+                insertionSort(a, lo, hi, d, wide);
+                return;
+            }
+            int[] count = new int[R + 2];
+            for (int i = lo; i <= hi; i++) {
+                count[digit(a[i], d, wide) + 2]++;
+            }
+            for (int r = 0; r < R + 1; r++) {
+                count[r + 1] += count[r];
+            }
+            for (int i = lo; i <= hi; i++) {
+                aux[count[digit(a[i], d, wide) + 1]++] = a[i];
+            }
+            System.arraycopy(aux, 0, a, lo, hi - lo + 1);
+            Metrics.add(Counter.ARRAY_READS, 3L * (hi - lo + 1));
+            Metrics.add(Counter.ARRAY_WRITES, 2L * (hi - lo + 1));
+            // count[r] is now the start of the subarray for digit r.
+            for (int r = 0; r < R; r++) {
+                if (count[r + 1] - count[r] > 1) {
+                    sort(a, aux, lo + count[r], lo + count[r + 1] - 1, d + 1, wide);
+                }
+            }
+        }
+
+    }
+
+
+    /**
+     * 3-way radix quick sort, partitions on the character at position d into
+     * less, equal and greater and only moves to the next character for the
+     * equal range.
+     */
+    static final class Quick3StringSort extends StringSorter {
+
+        @Override
+        void sortImpl(String[] a) {
+            StdRandom.shuffle(a);
+            sort(a, 0, a.length - 1, 0);
+        }
+
+        private static void sort(String[] a, int lo, int hi, int d) {
+            if (hi <= lo + CUTOFF) {
+                insertionSort(a, lo, hi, d, false);
+                return;
+            }
+            int lt = lo;
+            int gt = hi;
+            int v = charAt(a[lo], d);
+            int i = lo + 1;
+            while (i <= gt) {
+                int t = charAt(a[i], d);
+                if (t < v) {
+                    exch(a, lt++, i++);
+                } else if (t > v) {
+                    exch(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sort(a, lo, lt - 1, d);
+            if (v >= 0) {
+                sort(a, lt, gt, d + 1);
+            }
+            sort(a, gt + 1, hi, d);
+        }
+
+        /**
+         * Works on whole characters, the radix plays no part in 3-way
+         * partitioning so the width is never detected.
+         */
+        private static int charAt(String s, int d) {
+            return d < s.length() ? s.charAt(d) : -1;
+        }
+
+    }
+
+
+    /**
+     * Sorts packed key prefixes before comparing whole strings.
+     *
+     * The first {@value #PREFIX_DIGITS} digits of each string are packed big
+     * endian into a <code>long</code>, with missing digits as zero, and kept
+     * alongside the index of the string. The pairs are sorted by an LSD radix
+     * sort over the eight bytes of the prefix, which skips any byte that is
+     * the same in every key. Most of the ordering is therefore decided on two
+     * contiguous primitive arrays. Only strings whose prefixes are equal are
+     * then ordered by a full compare, and the input is permuted once.
+     */
+    static final class PrefixPackedStringSort extends StringSorter {
+
+        private static final int PREFIX_DIGITS = 8;
+
+        @Override
+        void sortImpl(String[] a) {
+            int n = a.length;
+            if (n < 2) {
+                return;
+            }
+            boolean wide = isWide(a);
+            long[] keys = new long[n];
+            int[] idx = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = prefix(a[i], wide);
+                idx[i] = i;
+            }
+            radixSort(keys, idx);
+
+            String[] sorted = new String[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = a[idx[i]];
+            }
+            for (int lo = 0, hi; lo < n; lo = hi) {
+                hi = lo + 1;
+                while (hi < n && keys[hi] == keys[lo]) {
+                    hi++;
+                }
+                if (hi - lo > 1) {
+                    Arrays.sort(sorted, lo, hi, AppSorting::compare);
+                }
+            }
+            System.arraycopy(sorted, 0, a, 0, n);
+            Metrics.add(Counter.ARRAY_READS, 2L * n);
+            Metrics.add(Counter.ARRAY_WRITES, 2L * n);
+        }
+
+        private static long prefix(String s, boolean wide) {
+            long k = 0;
+            for (int d = 0; d < PREFIX_DIGITS; d++) {
+                k = k << 8 | Math.max(digit(s, d, wide), 0);
+            }
+            return k;
+        }
+
+        /**
+         * Stable LSD radix sort of unsigned <code>keys</code>, carrying
+         * <code>idx</code> along.
+         */
+        private static void radixSort(long[] keys, int[] idx) {
+            int n = keys.length;
+            long[] auxKeys = new long[n];
+            int[] auxIdx = new int[n];
+            int[] count = new int[R + 1];
+            for (int shift = 0; shift < 64; shift += 8) {
+                Arrays.fill(count, 0);
+                for (int i = 0; i < n; i++) {
+                    count[((int) (keys[i] >>> shift) & 0xff) + 1]++;
+                }
+                Metrics.add(Counter.ARRAY_READS, n);
+                if (count[((int) (keys[0] >>> shift) & 0xff) + 1] == n) {
+                    continue;
+                }
+                for (int r = 0; r < R; r++) {
+                    count[r + 1] += count[r];
+                }
+                for (int i = 0; i < n; i++) {
+                    int to = count[(int) (keys[i] >>> shift) & 0xff]++;
+                    auxKeys[to] = keys[i];
+                    auxIdx[to] = idx[i];
+                }
+                System.arraycopy(auxKeys, 0, keys, 0, n);
+                System.arraycopy(auxIdx, 0, idx, 0, n);
+                Metrics.add(Counter.ARRAY_READS, 4L * n);
+                Metrics.add(Counter.ARRAY_WRITES, 4L * n);
+            }
         }
 
     }
@@ -19,11 +19,17 @@
 
 package com.drunkendev.algorithms.chapter1;
 
-import java.io.BufferedReader;
+import com.drunkendev.algorithms.chapter1.Metrics.Counter;
+import edu.princeton.cs.algs4.Stopwatch;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 
 /**
@@ -55,7 +61,12 @@ public final class AppUnionFind {
         qf.union(5, 7);
         qf.union(0, 3);
         qf.union(4, 2);
-        System.out.println(qf.getArrAccess());
+        if (Metrics.ENABLED) {
+            Metrics.Snapshot m = Metrics.snapshot();
+            System.out.println(m.get(Counter.ARRAY_READS) + m.get(Counter.ARRAY_WRITES));
+        } else {
+            System.out.println("Array accesses not counted, run with -Dalgs4.metrics=true");
+        }
     }
 
     public static void main(String[] args) throws IOException {
@@ -63,30 +74,80 @@ public final class AppUnionFind {
 //        loadFile("mediumUF.txt");
 //        loadFile("largeUF.txt");
         ex151();
+        compareFinds("tinyUF.txt", "mediumUF.txt", "largeUF.txt");
     }
 
-    private static void loadFile(String fn) throws IOException {
-        UnionFind uf;
-        try (BufferedReader r = App.dataReader(fn)) {
-            String line;
-            int p, q;
-            String[] pq;
-            String ct = r.readLine();
-            uf = new SolutionWeightedQuickUnion(Integer.parseInt(ct));
-            int i = 0;
-            while ((line = r.readLine()) != null) {
-                if (i++ % 10000 == 0) {
-                    System.out.println(i);
+    /**
+     * Names of the weighted solutions that can be built with
+     * {@link #newSolution(String, int)}.
+     */
+    static final String[] WEIGHTED_SOLUTIONS = {
+        "SolutionWeightedQuickUnion",
+        "SolutionWeightedQuickUnionPathCompression",
+        "SolutionWeightedQuickUnionPathHalving",
+        "SolutionWeightedQuickUnionPathSplitting",
+        "SolutionRankedQuickUnionPathCompression"
+    };
+
+    static SolutionUnionFind newSolution(String name, int size) {
+        switch (name) {
+            case "SolutionQuickFindUnionFind":
+                return new SolutionQuickFindUnionFind(size);
+            case "SolutionQuickUnionFind":
+                return new SolutionQuickUnionFind(size);
+            case "SolutionWeightedQuickUnion":
+                return new SolutionWeightedQuickUnion(size);
+            case "SolutionWeightedQuickUnionPathCompression":
+                return new SolutionWeightedQuickUnionPathCompression(size);
+            case "SolutionWeightedQuickUnionPathHalving":
+                return new SolutionWeightedQuickUnionPathHalving(size);
+            case "SolutionWeightedQuickUnionPathSplitting":
+                return new SolutionWeightedQuickUnionPathSplitting(size);
+            case "SolutionRankedQuickUnionPathCompression":
+                return new SolutionRankedQuickUnionPathCompression(size);
+            default:
+                throw new IllegalArgumentException("Unknown solution: " + name);
+        }
+    }
+
+    /**
+     * Prints the array accesses, average find path and time taken by each
+     * weighted solution to process the given UF files.
+     *
+     * Accesses and paths are only counted when {@link Metrics#ENABLED}.
+     */
+    private static void compareFinds(String... files) throws IOException {
+        for (String fn : files) {
+            EdgeList edges = App.edges(fn);
+            for (String name : WEIGHTED_SOLUTIONS) {
+                SolutionUnionFind uf = newSolution(name, edges.size);
+                Metrics.reset();
+                Stopwatch sw = new Stopwatch();
+                for (int i = 0; i < edges.ps.length; i++) {
+                    if (!uf.connected(edges.ps[i], edges.qs[i])) {
+                        uf.union(edges.ps[i], edges.qs[i]);
+                    }
                 }
-                pq = line.split("\\s+");
-                p = Integer.parseInt(pq[0]);
-                q = Integer.parseInt(pq[1]);
-                if (!uf.connected(p, q)) {
-                    uf.union(p, q);
-//                    System.out.format("%d %d\n", p, q);
+                double elapsed = sw.elapsedTime();
+                if (!Metrics.ENABLED) {
+                    System.out.format("%-12s %-42s %8.3fs %,9d components%n",
+                                      fn, name, elapsed, uf.count());
+                    continue;
                 }
+                Metrics.Snapshot m = Metrics.snapshot();
+                System.out.format("%-12s %-42s %8.3fs %,16d accesses %6.2f avg path %,9d components%n",
+                                  fn, name, elapsed,
+                                  m.get(Counter.ARRAY_READS) + m.get(Counter.ARRAY_WRITES),
+                                  (double) m.get(Counter.FIND_PATH) / Math.max(1, m.get(Counter.FINDS)),
+                                  uf.count());
             }
         }
+    }
+
+    private static void loadFile(String fn) throws IOException {
+        EdgeList edges = App.edges(fn);
+        UnionFind uf = new SolutionWeightedQuickUnion(edges.size);
+        uf.unionAll(edges.ps, edges.qs);
         System.out.println(uf.count() + " components.");
 
 //        System.out.println(uf.connected(6, 4));
@@ -94,7 +155,38 @@ public final class AppUnionFind {
     }
 
 
-    private static interface UnionFind {
+    /**
+     * Edges of a UF file, the element count followed by <code>p q</code>
+     * pairs, held as parallel endpoint arrays.
+     */
+    static final class EdgeList {
+
+        final int size;
+        final int[] ps;
+        final int[] qs;
+
+        EdgeList(int size, int[] ps, int[] qs) {
+            this.size = size;
+            this.ps = ps;
+            this.qs = qs;
+        }
+
+        static EdgeList load(String fn) throws IOException {
+            int[] ints = App.readInts(fn);
+            int m = (ints.length - 1) / 2;
+            int[] ps = new int[m];
+            int[] qs = new int[m];
+            for (int i = 0; i < m; i++) {
+                ps[i] = ints[2 * i + 1];
+                qs[i] = ints[2 * i + 2];
+            }
+            return new EdgeList(ints[0], ps, qs);
+        }
+
+    }
+
+
+    static interface UnionFind {
 
         void union(int p, int q);
 
@@ -104,6 +196,23 @@ public final class AppUnionFind {
 
         boolean connected(int p, int q);
 
+        /**
+         * Union each pair <code>ps[i], qs[i]</code>.
+         *
+         * @param   ps
+         *          First point of each pair.
+         * @param   qs
+         *          Second point of each pair.
+         */
+        default void unionAll(int[] ps, int[] qs) {
+            if (ps.length != qs.length) {
+                throw new IllegalArgumentException("Mismatched pairs: " + ps.length + " != " + qs.length);
+            }
+            for (int i = 0; i < ps.length; i++) {
+                union(ps[i], qs[i]);
+            }
+        }
+
     }
 
 
@@ -112,11 +221,10 @@ public final class AppUnionFind {
      *
      * Solutions are derived based on hints given throughout the book text.
      */
-    private static abstract class SolutionUnionFind implements UnionFind {
+    static abstract class SolutionUnionFind implements UnionFind {
 
         protected int[] id;
         protected int count;
-        protected int arrAccess;
 
         public SolutionUnionFind(int size) {
             id = new int[size];
@@ -142,8 +250,23 @@ public final class AppUnionFind {
             return find(p) == find(q);
         }
 
-        public int getArrAccess() {
-            return arrAccess;
+        /**
+         * Large batches are first reduced in parallel to a spanning forest,
+         * see {@link SpanningForestTask}, only the edges of which are then
+         * applied.
+         */
+        @Override
+        public void unionAll(int[] ps, int[] qs) {
+            if (ps.length < SpanningForestTask.PARALLEL_THRESHOLD) {
+                UnionFind.super.unionAll(ps, qs);
+                return;
+            }
+            boolean[] spanning = SpanningForestTask.spanningForest(id.length, ps, qs);
+            for (int i = 0; i < ps.length; i++) {
+                if (spanning[i]) {
+                    union(ps[i], qs[i]);
+                }
+            }
         }
 
     }
@@ -152,7 +275,7 @@ public final class AppUnionFind {
     /**
      * Quick find union find solution.
      */
-    private static final class SolutionQuickFindUnionFind extends SolutionUnionFind {
+    static final class SolutionQuickFindUnionFind extends SolutionUnionFind {
 
         public SolutionQuickFindUnionFind(int size) {
             super(size);
@@ -166,16 +289,19 @@ public final class AppUnionFind {
                 return;
             }
             for (int i = 0; i < id.length; i++) {
-                arrAccess++;
                 if (id[i] == pid) {
                     id[i] = qid;
+                    Metrics.increment(Counter.ARRAY_WRITES);
                 }
             }
+            Metrics.add(Counter.ARRAY_READS, id.length);
             count--;
         }
 
         @Override
         public int find(int p) {
+            Metrics.find(0);
+            Metrics.increment(Counter.ARRAY_READS);
             return id[p];
         }
 
@@ -291,7 +417,7 @@ public final class AppUnionFind {
     }
 
 
-    private static class SolutionQuickUnionFind extends SolutionUnionFind {
+    static class SolutionQuickUnionFind extends SolutionUnionFind {
 
         public SolutionQuickUnionFind(int size) {
             super(size);
@@ -304,7 +430,7 @@ public final class AppUnionFind {
             if (i == j) {
                 return;
             }
-            arrAccess++;
+            Metrics.increment(Counter.ARRAY_WRITES);
             id[i] = j;
             count--;
         }
@@ -329,17 +455,20 @@ public final class AppUnionFind {
 //            int n = id[p];
 //            return n == p ? n : find(n);
             // Turns out the while is faster.
+            int length = 0;
             while (p != id[p]) {
-                arrAccess++;
+                length++;
                 p = id[p];
             }
+            Metrics.find(length);
+            Metrics.add(Counter.ARRAY_READS, 2L * length + 1);
             return p;
         }
 
     }
 
 
-    private static final class SolutionWeightedQuickUnion extends SolutionQuickUnionFind {
+    static class SolutionWeightedQuickUnion extends SolutionQuickUnionFind {
 
         private final int[] sizes;
 
@@ -358,17 +487,582 @@ public final class AppUnionFind {
             if (i == j) {
                 return;
             }
-            arrAccess++;
+            Metrics.increment(Counter.ARRAY_WRITES);
             if (sizes[i] < sizes[j]) {
                 id[i] = j;
-                sizes[j] = sizes[i];
+                sizes[j] += sizes[i];
+            } else {
+                id[j] = i;
+                sizes[i] += sizes[j];
+            }
+            count--;
+        }
+
+    }
+
+
+    /**
+     * Weighted quick union where every find points each node on the path
+     * directly at the root, this takes a second pass over the path.
+     */
+    static final class SolutionWeightedQuickUnionPathCompression extends SolutionWeightedQuickUnion {
+
+        public SolutionWeightedQuickUnionPathCompression(int size) {
+            super(size);
+        }
+
+        @Override
+        public int find(int p) {
+            int root = p;
+            int length = 0;
+            while (root != id[root]) {
+                length++;
+                root = id[root];
+            }
+            while (p != root) {
+                int next = id[p];
+                id[p] = root;
+                p = next;
+            }
+            Metrics.find(length);
+            Metrics.add(Counter.ARRAY_READS, 3L * length + 1);
+            Metrics.add(Counter.ARRAY_WRITES, length);
+            return root;
+        }
+
+    }
+
+
+    /**
+     * Weighted quick union where every other node on the find path is pointed
+     * at its grandparent, halving the path length in a single pass.
+     */
+    static final class SolutionWeightedQuickUnionPathHalving extends SolutionWeightedQuickUnion {
+
+        public SolutionWeightedQuickUnionPathHalving(int size) {
+            super(size);
+        }
+
+        @Override
+        public int find(int p) {
+            int length = 0;
+            while (p != id[p]) {
+                length++;
+                id[p] = id[id[p]];
+                p = id[p];
+            }
+            Metrics.find(length);
+            Metrics.add(Counter.ARRAY_READS, 4L * length + 1);
+            Metrics.add(Counter.ARRAY_WRITES, length);
+            return p;
+        }
+
+    }
+
+
+    /**
+     * Weighted quick union where every node on the find path is pointed at
+     * its grandparent in a single pass.
+     */
+    static final class SolutionWeightedQuickUnionPathSplitting extends SolutionWeightedQuickUnion {
+
+        public SolutionWeightedQuickUnionPathSplitting(int size) {
+            super(size);
+        }
+
+        @Override
+        public int find(int p) {
+            int length = 0;
+            while (p != id[p]) {
+                length++;
+                int next = id[p];
+                id[p] = id[next];
+                p = next;
+            }
+            Metrics.find(length);
+            Metrics.add(Counter.ARRAY_READS, 3L * length + 1);
+            Metrics.add(Counter.ARRAY_WRITES, length);
+            return p;
+        }
+
+    }
+
+
+    /**
+     * Quick union linking by rank, an upper bound on tree height, with full
+     * path compression.
+     */
+    static final class SolutionRankedQuickUnionPathCompression extends SolutionQuickUnionFind {
+
+        private final byte[] ranks;
+
+        public SolutionRankedQuickUnionPathCompression(int size) {
+            super(size);
+            ranks = new byte[size];
+        }
+
+        @Override
+        public void union(int p, int q) {
+            int i = find(p);
+            int j = find(q);
+            if (i == j) {
+                return;
+            }
+            Metrics.increment(Counter.ARRAY_WRITES);
+            if (ranks[i] < ranks[j]) {
+                id[i] = j;
+            } else if (ranks[i] > ranks[j]) {
+                id[j] = i;
             } else {
                 id[j] = i;
-                sizes[i] = sizes[j];
+                ranks[i]++;
             }
             count--;
         }
 
+        @Override
+        public int find(int p) {
+            int root = p;
+            int length = 0;
+            while (root != id[root]) {
+                length++;
+                root = id[root];
+            }
+            while (p != root) {
+                int next = id[p];
+                id[p] = root;
+                p = next;
+            }
+            Metrics.find(length);
+            Metrics.add(Counter.ARRAY_READS, 3L * length + 1);
+            Metrics.add(Counter.ARRAY_WRITES, length);
+            return root;
+        }
+
+    }
+
+
+    /**
+     * Weighted quick union that can undo unions.
+     *
+     * Every union that links two roots pushes the linked root onto an undo
+     * log. Since finds never compress paths that single entry is enough to
+     * restore both the parent and the size. Take a {@link #snapshot()}, apply
+     * a batch of what-if unions, then {@link #rollbackTo(int)} the snapshot,
+     * each batch of k unions costs O(k log n) both ways.
+     */
+    static final class SolutionRollbackUnionFind extends SolutionQuickUnionFind {
+
+        private final int[] sizes;
+        private int[] undo = new int[16];
+        private int undoSize;
+
+        public SolutionRollbackUnionFind(int size) {
+            super(size);
+            sizes = new int[size];
+            for (int i = 0; i < size; i++) {
+                sizes[i] = 1;
+            }
+        }
+
+        @Override
+        public void union(int p, int q) {
+            int i = find(p);
+            int j = find(q);
+            if (i == j) {
+                return;
+            }
+            if (sizes[i] < sizes[j]) {
+                int t = i;
+                i = j;
+                j = t;
+            }
+            Metrics.increment(Counter.ARRAY_WRITES);
+            id[j] = i;
+            sizes[i] += sizes[j];
+            count--;
+            if (undoSize == undo.length) {
+                undo = Arrays.copyOf(undo, undoSize * 2);
+            }
+            undo[undoSize++] = j;
+        }
+
+        /**
+         * Mark the current state.
+         *
+         * @return  Token for {@link #rollbackTo(int)}.
+         */
+        public int snapshot() {
+            return undoSize;
+        }
+
+        /**
+         * Undo every union made since <code>snapshot</code> was taken.
+         *
+         * @param   snapshot
+         *          Value returned from {@link #snapshot()}.
+         * @throws  IllegalArgumentException
+         *          If the snapshot is newer than the current state, for
+         *          example one that was already rolled back past.
+         */
+        public void rollbackTo(int snapshot) {
+            if (snapshot < 0 || snapshot > undoSize) {
+                throw new IllegalArgumentException("Invalid snapshot " + snapshot + ", log holds " + undoSize);
+            }
+            while (undoSize > snapshot) {
+                int j = undo[--undoSize];
+                int i = id[j];
+                sizes[i] -= sizes[j];
+                id[j] = j;
+                count++;
+            }
+        }
+
+        /**
+         * Count the components there would be if the given pairs were also
+         * connected, leaving this union find unchanged.
+         */
+        public int countIf(int[] ps, int[] qs) {
+            int snapshot = snapshot();
+            try {
+                // Not unionAll, its parallel path costs O(n) per batch.
+                for (int i = 0; i < ps.length; i++) {
+                    union(ps[i], qs[i]);
+                }
+                return count();
+            } finally {
+                rollbackTo(snapshot);
+            }
+        }
+
+    }
+
+    /**
+     * Thread safe union find that uses no locks.
+     *
+     * Parents live in an {@link AtomicIntegerArray}. A union links one root
+     * under the other with a single CAS and retries from the new roots if
+     * another thread linked it first. Roots are linked by a fixed random
+     * total order, a bijective hash of the index, which keeps trees shallow
+     * in expectation and means a parent always ranks higher than its child.
+     *
+     * {@link #find(int)} is wait-free, it uses path halving where the CAS is
+     * attempted once and a failure simply means another thread already
+     * shortened the path. {@link #connected(int, int)} only retries when a
+     * concurrent union changed one of the roots it found.
+     */
+    static final class ConcurrentUnionFind implements UnionFind {
+
+        private final AtomicIntegerArray id;
+        private final AtomicInteger count;
+
+        public ConcurrentUnionFind(int size) {
+            id = new AtomicIntegerArray(size);
+            for (int i = 0; i < size; i++) {
+                id.lazySet(i, i);
+            }
+            count = new AtomicInteger(size);
+        }
+
+        @Override
+        public void union(int p, int q) {
+            link(p, q);
+        }
+
+        /**
+         * Union <code>p</code> and <code>q</code>.
+         *
+         * @return  true if this call merged two components, false if they were
+         *          already connected.
+         */
+        boolean link(int p, int q) {
+            while (true) {
+                int i = find(p);
+                int j = find(q);
+                if (i == j) {
+                    return false;
+                }
+                if (rank(i) > rank(j)) {
+                    int t = i;
+                    i = j;
+                    j = t;
+                }
+                if (id.compareAndSet(i, i, j)) {
+                    count.decrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void unionAll(int[] ps, int[] qs) {
+            if (ps.length != qs.length) {
+                throw new IllegalArgumentException("Mismatched pairs: " + ps.length + " != " + qs.length);
+            }
+            ForkJoinPool.commonPool().invoke(new SpanningForestTask(this, ps, qs, null, 0, ps.length));
+        }
+
+        @Override
+        public int count() {
+            return count.get();
+        }
+
+        @Override
+        public int find(int p) {
+            int length = 0;
+            while (true) {
+                int parent = id.get(p);
+                if (parent == p) {
+                    Metrics.find(length);
+                    return p;
+                }
+                length++;
+                int grandparent = id.get(parent);
+                if (parent != grandparent) {
+                    id.compareAndSet(p, parent, grandparent);
+                }
+                p = grandparent;
+            }
+        }
+
+        @Override
+        public boolean connected(int p, int q) {
+            while (true) {
+                int i = find(p);
+                int j = find(q);
+                if (i == j) {
+                    return true;
+                }
+                // If i is still a root then p and q were apart when j was found.
+                if (id.get(i) == i) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Murmur3 finalizer, a bijection on int so no two elements share a rank.
+         */
+        private static int rank(int i) {
+            i ^= i >>> 16;
+            i *= 0x85ebca6b;
+            i ^= i >>> 13;
+            i *= 0xc2b2ae35;
+            i ^= i >>> 16;
+            return i;
+        }
+
+    }
+
+
+    /**
+     * Wraps a union find for read mostly use, {@link #freeze()} produces an
+     * immutable {@link Frozen} snapshot whose queries are two array loads.
+     *
+     * Members of each component are kept on a circular list. A union splices
+     * the absorbed component's list in after the surviving root, where it
+     * stays a contiguous segment ending at the absorbed root for good, as
+     * later splices only ever cut the list directly after a root. Each union
+     * after the first freeze logs that segment. The next freeze copies the
+     * previous labels and relabels only the logged segments with their
+     * current root, so elements whose component did not change are never
+     * visited.
+     *
+     * Unions and freezes are for one writer thread. A {@link Frozen} may be
+     * shared with any number of readers without synchronization once safely
+     * published, for example through a volatile field.
+     */
+    static final class FreezableUnionFind implements UnionFind {
+
+        private final UnionFind uf;
+        private final int[] next;
+        private Frozen frozen;
+        private int[] segStart = new int[16];
+        private int[] segEnd = new int[16];
+        private int segments;
+
+        /**
+         * @param   uf
+         *          Union find to wrap, with no unions applied yet and whose
+         *          {@link UnionFind#find(int)} returns a member of the
+         *          component. Further unions must go through this wrapper.
+         * @param   size
+         *          Number of elements in <code>uf</code>.
+         */
+        public FreezableUnionFind(UnionFind uf, int size) {
+            this.uf = uf;
+            this.next = new int[size];
+            for (int i = 0; i < size; i++) {
+                next[i] = i;
+            }
+        }
+
+        @Override
+        public void union(int p, int q) {
+            int i = uf.find(p);
+            int j = uf.find(q);
+            if (i == j) {
+                return;
+            }
+            uf.union(p, q);
+            int root = uf.find(p);
+            int absorbed = root == i ? j : i;
+            int start = next[absorbed];
+            next[absorbed] = next[root];
+            next[root] = start;
+            if (frozen != null) {
+                if (segments == segStart.length) {
+                    segStart = Arrays.copyOf(segStart, segments * 2);
+                    segEnd = Arrays.copyOf(segEnd, segments * 2);
+                }
+                segStart[segments] = start;
+                segEnd[segments++] = absorbed;
+            }
+        }
+
+        @Override
+        public int count() {
+            return uf.count();
+        }
+
+        @Override
+        public int find(int p) {
+            return uf.find(p);
+        }
+
+        @Override
+        public boolean connected(int p, int q) {
+            return uf.connected(p, q);
+        }
+
+        /**
+         * Snapshot of the current components.
+         *
+         * The first call labels every element, later calls copy the previous
+         * labels and relabel only the components merged since.
+         */
+        public Frozen freeze() {
+            int[] labels;
+            if (frozen == null) {
+                labels = new int[next.length];
+                for (int i = 0; i < labels.length; i++) {
+                    labels[i] = uf.find(i);
+                }
+            } else if (segments == 0) {
+                return frozen;
+            } else {
+                labels = frozen.labels.clone();
+                for (int s = 0; s < segments; s++) {
+                    int end = segEnd[s];
+                    int root = uf.find(end);
+                    for (int x = segStart[s]; ; x = next[x]) {
+                        labels[x] = root;
+                        if (x == end) {
+                            break;
+                        }
+                    }
+                }
+                segments = 0;
+            }
+            frozen = new Frozen(labels, uf.count());
+            return frozen;
+        }
+
+    }
+
+
+    /**
+     * Immutable component labels taken from a {@link FreezableUnionFind}.
+     */
+    static final class Frozen {
+
+        private final int[] labels;
+        private final int count;
+
+        Frozen(int[] labels, int count) {
+            this.labels = labels;
+            this.count = count;
+        }
+
+        public boolean connected(int p, int q) {
+            return labels[p] == labels[q];
+        }
+
+        /**
+         * Label shared by every element of the component of <code>p</code>.
+         */
+        public int label(int p) {
+            return labels[p];
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int size() {
+            return labels.length;
+        }
+
+    }
+
+
+    /**
+     * Applies a range of edges to a shared {@link ConcurrentUnionFind},
+     * splitting across a {@link ForkJoinPool} above {@link #CHUNK} edges.
+     *
+     * When given a mask each edge is flagged if its union merged two
+     * components. The flagged edges form a spanning forest of the batch, so
+     * applying just those to another union find gives the same components
+     * with at most <code>size - 1</code> unions and no redundant finds.
+     */
+    @SuppressWarnings("serial")
+    static final class SpanningForestTask extends RecursiveAction {
+
+        static final int PARALLEL_THRESHOLD = 1 << 16;
+        static final int CHUNK = 1 << 13;
+
+        private final ConcurrentUnionFind uf;
+        private final int[] ps;
+        private final int[] qs;
+        private final boolean[] spanning;
+        private final int from;
+        private final int to;
+
+        SpanningForestTask(ConcurrentUnionFind uf, int[] ps, int[] qs, boolean[] spanning, int from, int to) {
+            this.uf = uf;
+            this.ps = ps;
+            this.qs = qs;
+            this.spanning = spanning;
+            this.from = from;
+            this.to = to;
+        }
+
+        static boolean[] spanningForest(int size, int[] ps, int[] qs) {
+            if (ps.length != qs.length) {
+                throw new IllegalArgumentException("Mismatched pairs: " + ps.length + " != " + qs.length);
+            }
+            boolean[] spanning = new boolean[ps.length];
+            ForkJoinPool.commonPool().invoke(
+                    new SpanningForestTask(new ConcurrentUnionFind(size), ps, qs, spanning, 0, ps.length));
+            return spanning;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                for (int i = from; i < to; i++) {
+                    boolean merged = uf.link(ps[i], qs[i]);
+                    if (spanning != null) {
+                        spanning[i] = merged;
+                    }
+                }
+                return;
+            }
+            int mid = from + (to - from) / 2;
+            invokeAll(new SpanningForestTask(uf, ps, qs, spanning, from, mid),
+                      new SpanningForestTask(uf, ps, qs, spanning, mid, to));
+        }
+
     }
 
 }
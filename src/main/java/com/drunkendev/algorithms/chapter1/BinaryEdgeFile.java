@@ -0,0 +1,358 @@
+/*
+ * BinaryEdgeFile.java    Oct 18 2026, 19:55
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.AppUnionFind.EdgeList;
+import com.drunkendev.algorithms.chapter1.AppUnionFind.UnionFind;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+
+/**
+ * Compact binary form of the UF edge files.
+ *
+ * Convert a text file once with {@link #convert(Path, Path, Encoding)} and
+ * load it on every following run with {@link #read(Path)} or
+ * {@link #load(Path, IntFunction)}, which only decode the memory mapped
+ * bytes.
+ *
+ * All values are little endian. The layout is:
+ *
+ * <pre>
+ *  0  int   magic, "UFEB"
+ *  4  int   version
+ *  8  int   encoding, see {@link Encoding}
+ * 12  int   element count N
+ * 16  long  edge count
+ * 24        edges, p then q for each
+ * </pre>
+ *
+ * @author  Brett Ryan
+ */
+public final class BinaryEdgeFile {
+
+    private static final int MAGIC = 0x42454655;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long WINDOW = 1L << 30;
+
+
+    public static enum Encoding {
+
+        /** Four bytes per endpoint, decoded as a bulk int copy. */
+        FIXED,
+        /** LEB128 varints, one to five bytes per endpoint. */
+        VARINT
+
+    }
+
+
+    /**
+     * Receives each edge of a file.
+     */
+    @FunctionalInterface
+    public static interface EdgeHandler {
+
+        void accept(int p, int q);
+
+    }
+
+    private BinaryEdgeFile() {
+    }
+
+    /**
+     * Convert a UF file from {@link App#DATA_PATH}.
+     *
+     * Usage: <code>BinaryEdgeFile largeUF.txt target/largeUF.bin [VARINT]</code>
+     */
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args[1]);
+        Encoding enc = args.length > 2 ? Encoding.valueOf(args[2]) : Encoding.FIXED;
+        long edges = convert(App.dataFile(args[0]), out, enc);
+        System.out.println("Wrote " + edges + " edges to " + out);
+    }
+
+    /**
+     * Convert a whitespace separated UF text file to binary.
+     *
+     * @param   text
+     *          UF text file, the element count followed by pairs.
+     * @param   binary
+     *          File to write.
+     * @param   encoding
+     *          Encoding of the edges.
+     * @return  Number of edges written.
+     * @throws  IOException
+     *          If either file can not be read or written.
+     */
+    public static long convert(Path text, Path binary, Encoding encoding) throws IOException {
+        try (FileChannel ch = FileChannel.open(binary,
+                                               StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING,
+                                               StandardOpenOption.WRITE)) {
+            Writer w = new Writer(ch, encoding);
+            MappedTokenizer.forEachInt(text, w);
+            w.finish();
+            return w.edges;
+        }
+    }
+
+    /**
+     * Write edges already held in memory.
+     *
+     * @return  Number of edges written.
+     * @throws  IOException
+     *          If the file can not be written.
+     */
+    public static long write(EdgeList edges, Path binary, Encoding encoding) throws IOException {
+        try (FileChannel ch = FileChannel.open(binary,
+                                               StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING,
+                                               StandardOpenOption.WRITE)) {
+            Writer w = new Writer(ch, encoding);
+            w.accept(edges.size);
+            for (int i = 0; i < edges.ps.length; i++) {
+                w.accept(edges.ps[i]);
+                w.accept(edges.qs[i]);
+            }
+            w.finish();
+            return w.edges;
+        }
+    }
+
+    /**
+     * Read all edges of a binary file into memory.
+     */
+    public static EdgeList read(Path binary) throws IOException {
+        try (FileChannel ch = FileChannel.open(binary, StandardOpenOption.READ)) {
+            ByteBuffer hdr = header(ch, binary);
+            long m = hdr.getLong(16);
+            if (m > Integer.MAX_VALUE) {
+                throw new IOException("Too many edges to hold in arrays: " + m);
+            }
+            int[] ps = new int[(int) m];
+            int[] qs = new int[(int) m];
+            forEachEdge(ch, hdr, new EdgeHandler() {
+                private int i;
+
+                @Override
+                public void accept(int p, int q) {
+                    ps[i] = p;
+                    qs[i++] = q;
+                }
+            });
+            return new EdgeList(hdr.getInt(12), ps, qs);
+        }
+    }
+
+    /**
+     * Build a union find from a binary file.
+     *
+     * @param   binary
+     *          File to read.
+     * @param   factory
+     *          Creates the union find given the element count.
+     * @return  Union find with every edge applied through
+     *          {@link UnionFind#unionAll(int[], int[])}.
+     * @throws  IOException
+     *          If the file can not be read.
+     */
+    public static UnionFind load(Path binary, IntFunction<? extends UnionFind> factory) throws IOException {
+        EdgeList edges = read(binary);
+        UnionFind uf = factory.apply(edges.size);
+        uf.unionAll(edges.ps, edges.qs);
+        return uf;
+    }
+
+    /**
+     * Stream each edge of a binary file without holding them in memory.
+     *
+     * @return  Element count N from the header.
+     */
+    public static int forEachEdge(Path binary, EdgeHandler handler) throws IOException {
+        try (FileChannel ch = FileChannel.open(binary, StandardOpenOption.READ)) {
+            ByteBuffer hdr = header(ch, binary);
+            forEachEdge(ch, hdr, handler);
+            return hdr.getInt(12);
+        }
+    }
+
+    private static ByteBuffer header(FileChannel ch, Path file) throws IOException {
+        ByteBuffer hdr = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (hdr.hasRemaining() && ch.read(hdr, hdr.position()) >= 0) {
+        }
+        if (hdr.position() < HEADER_SIZE || hdr.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary edge file: " + file);
+        }
+        if (hdr.getInt(4) != VERSION) {
+            throw new IOException("Unsupported binary edge file version " + hdr.getInt(4) + ": " + file);
+        }
+        int enc = hdr.getInt(8);
+        if (enc < 0 || enc >= Encoding.values().length) {
+            throw new IOException("Unsupported encoding " + enc + ": " + file);
+        }
+        return hdr;
+    }
+
+    private static void forEachEdge(FileChannel ch, ByteBuffer hdr, EdgeHandler handler) throws IOException {
+        Encoding enc = Encoding.values()[hdr.getInt(8)];
+        long m = hdr.getLong(16);
+        long size = ch.size();
+        long edges = 0;
+        if (enc == Encoding.FIXED) {
+            int[] batch = new int[BUFFER_SIZE / 4];
+            // Windows are a multiple of 8 so never split an edge.
+            for (long pos = HEADER_SIZE; pos < size && edges < m; pos += WINDOW) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, size - pos));
+                IntBuffer ints = buf.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                while (ints.remaining() >= 2 && edges < m) {
+                    int n = (int) Math.min(Math.min(batch.length, ints.remaining()), 2 * (m - edges)) & ~1;
+                    ints.get(batch, 0, n);
+                    for (int i = 0; i < n; i += 2) {
+                        handler.accept(batch[i], batch[i + 1]);
+                    }
+                    edges += n / 2;
+                }
+            }
+        } else {
+            int value = 0;
+            int shift = 0;
+            int p = -1;
+            for (long pos = HEADER_SIZE; pos < size && edges < m; pos += WINDOW) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, size - pos));
+                int limit = buf.limit();
+                for (int i = 0; i < limit && edges < m; i++) {
+                    byte b = buf.get(i);
+                    value |= (b & 0x7f) << shift;
+                    if (b < 0) {
+                        shift += 7;
+                        continue;
+                    }
+                    if (p < 0) {
+                        p = value;
+                    } else {
+                        handler.accept(p, value);
+                        p = -1;
+                        edges++;
+                    }
+                    value = 0;
+                    shift = 0;
+                }
+            }
+        }
+        if (edges != m) {
+            throw new IOException("Truncated binary edge file, expected " + m + " edges but found " + edges);
+        }
+    }
+
+
+    /**
+     * Takes the ints of a UF text file, the first being N, and writes them as
+     * a binary edge file.
+     */
+    private static final class Writer implements IntConsumer {
+
+        private final FileChannel ch;
+        private final Encoding encoding;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private int n = -1;
+        private int values;
+        private long edges;
+        private IOException error;
+
+        Writer(FileChannel ch, Encoding encoding) throws IOException {
+            this.ch = ch;
+            this.encoding = encoding;
+            ch.position(HEADER_SIZE);
+        }
+
+        @Override
+        public void accept(int value) {
+            if (error != null) {
+                return;
+            }
+            if (n < 0) {
+                n = value;
+                return;
+            }
+            if (value < 0 || value >= n) {
+                throw new IllegalArgumentException("Element " + value + " not in [0, " + n + ")");
+            }
+            try {
+                if (buf.remaining() < 5) {
+                    flush();
+                }
+                if (encoding == Encoding.FIXED) {
+                    buf.putInt(value);
+                } else {
+                    while ((value & ~0x7f) != 0) {
+                        buf.put((byte) ((value & 0x7f) | 0x80));
+                        value >>>= 7;
+                    }
+                    buf.put((byte) value);
+                }
+                if ((++values & 1) == 0) {
+                    edges++;
+                }
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+
+        void finish() throws IOException {
+            if (error != null) {
+                throw error;
+            }
+            if (n < 0) {
+                throw new IOException("Missing element count");
+            }
+            if ((values & 1) != 0) {
+                throw new IOException("Odd number of endpoints, last edge is incomplete");
+            }
+            flush();
+            ByteBuffer hdr = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            hdr.putInt(MAGIC).putInt(VERSION).putInt(encoding.ordinal()).putInt(n).putLong(edges);
+            hdr.flip();
+            while (hdr.hasRemaining()) {
+                ch.write(hdr, hdr.position());
+            }
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            buf.clear();
+        }
+
+    }
+
+}
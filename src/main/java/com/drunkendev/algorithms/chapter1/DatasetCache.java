@@ -0,0 +1,391 @@
+/*
+ * DatasetCache.java    Oct 18 2026, 18:20
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.AppUnionFind.EdgeList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+
+/**
+ * Parsed forms of the data files, kept so experiments and benchmark
+ * iterations do not parse the same file again.
+ *
+ * Entries are keyed by file name and checked against the file's modification
+ * time and length on every lookup, so an edited file is parsed again. Entries
+ * are evicted least recently used first once their estimated size exceeds the
+ * memory budget, and a single entry larger than the budget is never kept.
+ *
+ * With a snapshot directory each parse is also written there, edges in the
+ * {@link BinaryEdgeFile} fixed encoding and tokens as length prefixed UTF-8,
+ * and later runs read the snapshot rather than parsing the text. Snapshot
+ * names carry the file name with anything other than letters, digits,
+ * <code>.</code>, <code>_</code> and <code>-</code> replaced and a hash of
+ * the original, and the modification time and length of their source, stale
+ * ones are deleted when replaced. Snapshots are only a shortcut, one that can
+ * not be read or written is treated as absent.
+ *
+ * The shared instance used by {@link App} is configured with the system
+ * properties <code>algs4.cache.budget</code>, in bytes, and
+ * <code>algs4.cache.dir</code>, unset to disable snapshots.
+ *
+ * @author  Brett Ryan
+ */
+final class DatasetCache {
+
+    static final long DEFAULT_BUDGET = 256L << 20;
+
+    /**
+     * Rough heap cost of a token excluding its characters, as in
+     * {@link ExternalSort}.
+     */
+    private static final int STRING_OVERHEAD = 56;
+
+    private static final int TOKENS_MAGIC = 0x544b4e53;
+
+    private static final Pattern UNSAFE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
+
+    private static enum Kind {
+
+        TOKENS(".tokens") {
+            @Override
+            Object parse(String fileName) throws IOException {
+                List<String> tokens = new ArrayList<>();
+                App.forEachToken(fileName, (buf, off, len) -> tokens.add(new String(buf, off, len, StandardCharsets.UTF_8)));
+                return tokens.toArray(new String[tokens.size()]);
+            }
+
+            @Override
+            long sizeOf(Object value) {
+                long bytes = 16;
+                for (String s : (String[]) value) {
+                    bytes += STRING_OVERHEAD + 2L * s.length();
+                }
+                return bytes;
+            }
+
+            @Override
+            Object read(Path snapshot) throws IOException {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                    if (in.readInt() != TOKENS_MAGIC) {
+                        throw new IOException("Not a token snapshot: " + snapshot);
+                    }
+                    String[] tokens = new String[in.readInt()];
+                    byte[] buf = new byte[64];
+                    for (int i = 0; i < tokens.length; i++) {
+                        int len = in.readInt();
+                        if (len > buf.length) {
+                            buf = new byte[Math.max(len, buf.length * 2)];
+                        }
+                        in.readFully(buf, 0, len);
+                        tokens[i] = new String(buf, 0, len, StandardCharsets.UTF_8);
+                    }
+                    return tokens;
+                }
+            }
+
+            @Override
+            void write(Object value, Path snapshot) throws IOException {
+                String[] tokens = (String[]) value;
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshot)))) {
+                    out.writeInt(TOKENS_MAGIC);
+                    out.writeInt(tokens.length);
+                    for (String s : tokens) {
+                        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(b.length);
+                        out.write(b);
+                    }
+                }
+            }
+        },
+
+        EDGES(".edges") {
+            @Override
+            Object parse(String fileName) throws IOException {
+                return EdgeList.load(fileName);
+            }
+
+            @Override
+            long sizeOf(Object value) {
+                return 48 + 8L * ((EdgeList) value).ps.length;
+            }
+
+            @Override
+            Object read(Path snapshot) throws IOException {
+                return BinaryEdgeFile.read(snapshot);
+            }
+
+            @Override
+            void write(Object value, Path snapshot) throws IOException {
+                BinaryEdgeFile.write((EdgeList) value, snapshot, BinaryEdgeFile.Encoding.FIXED);
+            }
+        };
+
+        final String suffix;
+
+        Kind(String suffix) {
+            this.suffix = suffix;
+        }
+
+        abstract Object parse(String fileName) throws IOException;
+
+        abstract long sizeOf(Object value);
+
+        abstract Object read(Path snapshot) throws IOException;
+
+        abstract void write(Object value, Path snapshot) throws IOException;
+
+    }
+
+
+    private final long budget;
+    private final Path snapshotDir;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long used;
+
+    /**
+     * @param   budget
+     *          Estimated bytes of parsed data held in memory.
+     * @param   snapshotDir
+     *          Directory for on-disk snapshots, or <code>null</code> for none.
+     */
+    DatasetCache(long budget, Path snapshotDir) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + budget);
+        }
+        this.budget = budget;
+        this.snapshotDir = snapshotDir;
+    }
+
+    static DatasetCache fromSystemProperties() {
+        String dir = System.getProperty("algs4.cache.dir");
+        return new DatasetCache(Long.getLong("algs4.cache.budget", DEFAULT_BUDGET),
+                                dir == null || dir.isEmpty() ? null : Paths.get(dir));
+    }
+
+    /**
+     * Whitespace separated tokens of a data file.
+     *
+     * @return  A copy of the cached tokens which the caller may reorder.
+     */
+    String[] tokens(String fileName) throws IOException {
+        return ((String[]) get(Kind.TOKENS, fileName)).clone();
+    }
+
+    /**
+     * Edges of a UF data file.
+     *
+     * @return  The cached edges, shared between callers and not to be
+     *          modified.
+     */
+    EdgeList edges(String fileName) throws IOException {
+        return (EdgeList) get(Kind.EDGES, fileName);
+    }
+
+    synchronized long used() {
+        return used;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        used = 0;
+    }
+
+    private Object get(Kind kind, String fileName) throws IOException {
+        Path file = App.dataFile(fileName);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        long length = Files.size(file);
+        Key key = new Key(kind, fileName);
+        synchronized (this) {
+            Entry e = entries.get(key);
+            if (e != null) {
+                if (e.modified == modified && e.length == length) {
+                    return e.value;
+                }
+                entries.remove(key);
+                used -= e.bytes;
+            }
+        }
+
+        // Parsing happens outside the lock, a racing load of the same file
+        // only costs the duplicate work.
+        Object value = null;
+        Path snapshot = null;
+        if (snapshotDir != null) {
+            snapshot = snapshotDir.resolve(snapshotName(fileName) + "-" + modified + "-" + length + kind.suffix);
+            value = readSnapshot(kind, snapshot);
+        }
+        if (value == null) {
+            value = kind.parse(fileName);
+            if (snapshot != null) {
+                writeSnapshot(kind, fileName, value, snapshot);
+            }
+        }
+
+        long bytes = kind.sizeOf(value);
+        if (bytes <= budget) {
+            synchronized (this) {
+                Entry old = entries.put(key, new Entry(modified, length, value, bytes));
+                if (old != null) {
+                    used -= old.bytes;
+                }
+                used += bytes;
+                evict();
+            }
+        }
+        return value;
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (used > budget && it.hasNext()) {
+            used -= it.next().bytes;
+            it.remove();
+        }
+    }
+
+    /**
+     * Single path element naming the snapshots of a data file. The hash keeps
+     * names that only differ in replaced characters, such as
+     * <code>sub/x.txt</code> and <code>sub_x.txt</code>, apart.
+     */
+    static String snapshotName(String fileName) {
+        return UNSAFE_NAME_CHARS.matcher(fileName).replaceAll("_")
+               + "-" + String.format("%08x", fileName.hashCode());
+    }
+
+    /**
+     * Reads a snapshot, or returns <code>null</code> if there is none or it
+     * can not be read, in which case it is removed.
+     */
+    private static Object readSnapshot(Kind kind, Path snapshot) {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try {
+            return kind.read(snapshot);
+        } catch (IOException | RuntimeException ex) {
+            deleteQuietly(snapshot);
+            return null;
+        }
+    }
+
+    /**
+     * Writes through a temp file so a concurrent or interrupted run never
+     * sees a partial snapshot, then removes older snapshots of the same file.
+     * A failure, such as a read only directory or a full disk, leaves no
+     * snapshot and is otherwise ignored as the value is already parsed.
+     */
+    private void writeSnapshot(Kind kind, String fileName, Object value, Path snapshot) {
+        String base = snapshotName(fileName);
+        Path tmp = null;
+        try {
+            Files.createDirectories(snapshotDir);
+            tmp = Files.createTempFile(snapshotDir, base, ".tmp");
+            kind.write(value, tmp);
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            Pattern stale = Pattern.compile(Pattern.quote(base) + "-\\d+-\\d+" + Pattern.quote(kind.suffix));
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(snapshotDir)) {
+                for (Path p : ds) {
+                    if (stale.matcher(p.getFileName().toString()).matches() && !p.equals(snapshot)) {
+                        Files.deleteIfExists(p);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            // Snapshots are optional, the next run parses again.
+        } finally {
+            if (tmp != null) {
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException ex) {
+            // Left for a later run to replace.
+        }
+    }
+
+
+    private static final class Key {
+
+        private final Kind kind;
+        private final String fileName;
+
+        Key(Kind kind, String fileName) {
+            this.kind = kind;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key o = (Key) obj;
+            return kind == o.kind && fileName.equals(o.fileName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, fileName);
+        }
+
+    }
+
+
+    private static final class Entry {
+
+        final long modified;
+        final long length;
+        final Object value;
+        final long bytes;
+
+        Entry(long modified, long length, Object value, long bytes) {
+            this.modified = modified;
+            this.length = length;
+            this.value = value;
+            this.bytes = bytes;
+        }
+
+    }
+
+}
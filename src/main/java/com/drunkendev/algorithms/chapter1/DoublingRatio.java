@@ -0,0 +1,430 @@
+/*
+ * DoublingRatio.java    Oct 18 2026, 19:50
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.AppUnionFind.EdgeList;
+import com.drunkendev.algorithms.chapter1.AppUnionFind.UnionFind;
+import com.drunkendev.algorithms.chapter1.Metrics.Counter;
+import edu.princeton.cs.introcs.StdRandom;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+
+/**
+ * Doubling ratio experiments in the manner of the book's
+ * <code>DoublingRatio</code>, for any {@link AppSorting.Sorter},
+ * {@link AppSorting.StringSorter} or {@link UnionFind}.
+ *
+ * An {@link Experiment} is run on inputs of size N, 2N, 4N and so on until
+ * the time budget would be exceeded or the input runs out. For each size one
+ * CSV row is printed with the time taken, the ratio
+ * <code>T(2N) / T(N)</code>, its base 2 logarithm which is the exponent
+ * <code>b</code> of <code>T(N) ~ a N<sup>b</sup></code> between the two
+ * sizes, a least squares fit of <code>b</code> over every size so far and
+ * the {@link Metrics} counters per run. The counters are zero unless run
+ * with <code>-Dalgs4.metrics=true</code>, which slows every operation so
+ * the times are best taken without it.
+ *
+ * The start size is first run untimed for {@link #WARMUP_NANOS} so the
+ * smallest sizes are not measured before the JIT has compiled the code.
+ * Small sizes are repeated until they take at least
+ * {@link #MIN_SAMPLE_NANOS} and the average is reported.
+ *
+ * @author  Brett Ryan
+ */
+public final class DoublingRatio {
+
+    public static final int DEFAULT_START = 1000;
+    public static final long DEFAULT_BUDGET_MILLIS = 60_000;
+
+    static final long MIN_SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    static final int MAX_STRING_LENGTH = 12;
+
+
+    /**
+     * Something to time at increasing sizes.
+     */
+    @FunctionalInterface
+    public static interface Experiment {
+
+        /**
+         * Prepares input of size <code>n</code>, which is not timed.
+         *
+         * @return  The work to time, or <code>null</code> if there is no
+         *          input of that size.
+         */
+        Runnable prepare(int n);
+
+    }
+
+
+    /**
+     * Measurements for one size.
+     */
+    public static final class Row {
+
+        public final int n;
+        public final double seconds;
+        public final double ratio;
+        public final double exponent;
+        public final double fitted;
+        private final long[] counters;
+
+        Row(int n, double seconds, double ratio, double exponent, double fitted, long[] counters) {
+            this.n = n;
+            this.seconds = seconds;
+            this.ratio = ratio;
+            this.exponent = exponent;
+            this.fitted = fitted;
+            this.counters = counters;
+        }
+
+        /**
+         * Average count per run.
+         */
+        public long get(Counter c) {
+            return counters[c.ordinal()];
+        }
+
+    }
+
+    private final int start;
+    private final long budgetNanos;
+    private final PrintStream out;
+
+    public DoublingRatio() {
+        this(DEFAULT_START, DEFAULT_BUDGET_MILLIS, System.out);
+    }
+
+    /**
+     * Create a new {@link DoublingRatio} instance.
+     *
+     * @param   start
+     *          First input size.
+     * @param   budgetMillis
+     *          Total time, including preparing input, after which no larger
+     *          size is started.
+     * @param   out
+     *          Stream the CSV is printed to, <code>null</code> for none.
+     */
+    public DoublingRatio(int start, long budgetMillis, PrintStream out) {
+        if (start < 1) {
+            throw new IllegalArgumentException("Start size must be positive: " + start);
+        }
+        this.start = start;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.out = out;
+    }
+
+    /**
+     * Usage: <code>DoublingRatio name [budgetSeconds] [dataFile]</code>
+     *
+     * <code>name</code> is a sorter nested in {@link AppSorting} with a no
+     * argument constructor or a solution known to
+     * {@link AppUnionFind#newSolution(String, int)}. Without a data file
+     * sorters sort uniform random doubles, string sorters random lower case
+     * strings, the kernel sorters random <code>int</code>s and union finds
+     * connect random pairs. With one the prefixes of its tokens or edges are
+     * used, the kernel sorters need every token to be an <code>int</code>.
+     */
+    public static void main(String[] args) throws IOException {
+        String name = args.length > 0 ? args[0] : "InsertionSort";
+        long budget = args.length > 1 ? TimeUnit.SECONDS.toMillis(Long.parseLong(args[1])) : DEFAULT_BUDGET_MILLIS;
+        String file = args.length > 2 ? args[2] : null;
+        DoublingRatio dr = new DoublingRatio(DEFAULT_START, budget, System.out);
+
+        AppSorting.StringSorter strings = newSorter(name, AppSorting.StringSorter.class);
+        AppSorting.Sorter sorter = newSorter(name, AppSorting.Sorter.class);
+        if (strings != null) {
+            dr.run(name, file == null ? strings(strings) : strings(strings, App.tokens(file)));
+        } else if (sorter instanceof AppSorting.KernelMergeSort || sorter instanceof AppSorting.KernelQuickSort) {
+            dr.run(name, file == null ? ints(sorter) : ints(sorter, parseInts(file, App.tokens(file))));
+        } else if (sorter != null) {
+            dr.run(name, file == null ? sorter(sorter) : sorter(sorter, App.tokens(file)));
+        } else {
+            IntFunction<UnionFind> factory = n -> AppUnionFind.newSolution(name, n);
+            dr.run(name, file == null ? unionFind(factory) : unionFind(factory, App.edges(file)));
+        }
+    }
+
+    /**
+     * Sort <code>n</code> uniform random doubles.
+     */
+    public static Experiment sorter(AppSorting.Sorter sorter) {
+        return n -> {
+            Double[] a = new Double[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = StdRandom.uniform();
+            }
+            return () -> sorter.sortImpl(a);
+        };
+    }
+
+    /**
+     * Sort the first <code>n</code> of <code>data</code>.
+     */
+    public static Experiment sorter(AppSorting.Sorter sorter, Comparable[] data) {
+        return n -> {
+            if (n > data.length) {
+                return null;
+            }
+            Comparable[] a = Arrays.copyOf(data, n);
+            return () -> sorter.sortImpl(a);
+        };
+    }
+
+    /**
+     * Sort <code>n</code> uniform random non negative <code>int</code>s.
+     */
+    public static Experiment ints(AppSorting.Sorter sorter) {
+        return n -> {
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = StdRandom.uniform(Integer.MAX_VALUE);
+            }
+            return () -> sorter.sortImpl(a);
+        };
+    }
+
+    /**
+     * Sort the first <code>n</code> of <code>data</code>.
+     */
+    public static Experiment ints(AppSorting.Sorter sorter, int[] data) {
+        return n -> {
+            if (n > data.length) {
+                return null;
+            }
+            int[] a = Arrays.copyOf(data, n);
+            return () -> sorter.sortImpl(a);
+        };
+    }
+
+    /**
+     * Sort <code>n</code> random lower case strings of 1 to
+     * {@link #MAX_STRING_LENGTH} characters.
+     */
+    public static Experiment strings(AppSorting.StringSorter sorter) {
+        return n -> {
+            String[] a = new String[n];
+            char[] chars = new char[MAX_STRING_LENGTH];
+            for (int i = 0; i < n; i++) {
+                int len = StdRandom.uniform(1, MAX_STRING_LENGTH + 1);
+                for (int j = 0; j < len; j++) {
+                    chars[j] = (char) ('a' + StdRandom.uniform(26));
+                }
+                a[i] = new String(chars, 0, len);
+            }
+            return () -> sorter.sortImpl(a);
+        };
+    }
+
+    /**
+     * Sort the first <code>n</code> of <code>data</code>.
+     */
+    public static Experiment strings(AppSorting.StringSorter sorter, String[] data) {
+        return n -> {
+            if (n > data.length) {
+                return null;
+            }
+            String[] a = Arrays.copyOf(data, n);
+            return () -> sorter.sortImpl(a);
+        };
+    }
+
+    /**
+     * Connect <code>n</code> random pairs among <code>n</code> elements.
+     */
+    public static Experiment unionFind(IntFunction<? extends UnionFind> factory) {
+        return n -> {
+            int[] ps = new int[n];
+            int[] qs = new int[n];
+            for (int i = 0; i < n; i++) {
+                ps[i] = StdRandom.uniform(n);
+                qs[i] = StdRandom.uniform(n);
+            }
+            return () -> connect(factory.apply(n), ps, qs, n);
+        };
+    }
+
+    /**
+     * Connect the first <code>n</code> edges of a UF file.
+     */
+    public static Experiment unionFind(IntFunction<? extends UnionFind> factory, EdgeList edges) {
+        return n -> n > edges.ps.length
+                    ? null
+                    : () -> connect(factory.apply(edges.size), edges.ps, edges.qs, n);
+    }
+
+    /**
+     * Run an experiment, printing a CSV header and a row per size.
+     *
+     * @param   name
+     *          Value of the first column.
+     * @return  The rows printed.
+     */
+    public List<Row> run(String name, Experiment experiment) {
+        Counter[] counters = Counter.values();
+        if (out != null) {
+            StringBuilder sb = new StringBuilder("name,n,seconds,ratio,exponent,fitted");
+            for (Counter c : counters) {
+                sb.append(',').append(c.key());
+            }
+            out.println(sb);
+        }
+        List<Row> rows = new ArrayList<>();
+        long deadline = System.nanoTime() + budgetNanos;
+        long warm = System.nanoTime() + Math.min(WARMUP_NANOS, budgetNanos / 10);
+        do {
+            Runnable work = experiment.prepare(start);
+            if (work == null) {
+                return rows;
+            }
+            work.run();
+        } while (System.nanoTime() < warm);
+        double prev = 0;
+        for (int n = start; n > 0; n = n <= Integer.MAX_VALUE / 2 ? n * 2 : -1) {
+            int runs = 0;
+            long nanos = 0;
+            Metrics.reset();
+            do {
+                Runnable work = experiment.prepare(n);
+                if (work == null) {
+                    return rows;
+                }
+                long t0 = System.nanoTime();
+                work.run();
+                nanos += System.nanoTime() - t0;
+                runs++;
+            } while (nanos < MIN_SAMPLE_NANOS && System.nanoTime() < deadline);
+
+            Metrics.Snapshot m = Metrics.snapshot();
+            long[] counts = new long[counters.length];
+            for (Counter c : counters) {
+                counts[c.ordinal()] = m.get(c) / runs;
+            }
+            double seconds = nanos / 1e9 / runs;
+            double ratio = prev > 0 ? seconds / prev : Double.NaN;
+            Row row = new Row(n, seconds, ratio, lg(ratio), fit(rows, n, seconds), counts);
+            rows.add(row);
+            print(name, row);
+            prev = seconds;
+
+            // Stop when the next size, expected to take at least twice as
+            // long as this one, would run past the budget.
+            double expected = Math.max(MIN_SAMPLE_NANOS, seconds * 1e9 * (ratio > 2 ? ratio : 2));
+            if (System.nanoTime() + expected > deadline) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    private void print(String name, Row r) {
+        if (out == null) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(name).append(',').append(r.n)
+                .append(String.format(Locale.ROOT, ",%.6f,%.3f,%.3f,%.3f", r.seconds, r.ratio, r.exponent, r.fitted));
+        for (long c : r.counters) {
+            sb.append(',').append(c);
+        }
+        out.println(sb);
+    }
+
+    /**
+     * Least squares slope of <code>lg T</code> against <code>lg N</code> over
+     * the earlier rows and this one.
+     */
+    private static double fit(List<Row> rows, int n, double seconds) {
+        int k = rows.size() + 1;
+        if (k < 2) {
+            return Double.NaN;
+        }
+        double sx = 0;
+        double sy = 0;
+        double sxx = 0;
+        double sxy = 0;
+        for (int i = 0; i < k; i++) {
+            double x = lg(i < rows.size() ? rows.get(i).n : n);
+            double y = lg(i < rows.size() ? rows.get(i).seconds : seconds);
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+        }
+        return (k * sxy - sx * sy) / (k * sxx - sx * sx);
+    }
+
+    private static double lg(double x) {
+        return Math.log(x) / Math.log(2);
+    }
+
+    private static void connect(UnionFind uf, int[] ps, int[] qs, int n) {
+        for (int i = 0; i < n; i++) {
+            if (!uf.connected(ps[i], qs[i])) {
+                uf.union(ps[i], qs[i]);
+            }
+        }
+    }
+
+    private static int[] parseInts(String file, String[] tokens) {
+        int[] a = new int[tokens.length];
+        for (int i = 0; i < a.length; i++) {
+            try {
+                a[i] = Integer.parseInt(tokens[i]);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(
+                        "Kernel sorters sort int[], token " + i + " of " + file + " is not an int: " + tokens[i]);
+            }
+        }
+        return a;
+    }
+
+    /**
+     * A <code>type</code> nested in {@link AppSorting} with a no argument
+     * constructor, or <code>null</code> if there is none by that name.
+     */
+    private static <T> T newSorter(String name, Class<T> type) {
+        try {
+            Class<?> c = Class.forName(AppSorting.class.getName() + "$" + name);
+            if (!type.isAssignableFrom(c) || Modifier.isAbstract(c.getModifiers())) {
+                return null;
+            }
+            Constructor<?> ctor = c.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return type.cast(ctor.newInstance());
+        } catch (ClassNotFoundException | NoSuchMethodException ex) {
+            return null;
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Can not create " + name, ex);
+        }
+    }
+
+}
@@ -0,0 +1,444 @@
+/*
+ * EdgePipeline.java    Oct 18 2026, 19:05
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.AppUnionFind.UnionFind;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+
+/**
+ * Loads a UF text file into a union find with reading, parsing and union
+ * running on separate threads.
+ *
+ * <ol>
+ *  <li>A reader thread fills fixed size byte chunks from the file.</li>
+ *  <li>A parser thread turns the chunks into batches of <code>p</code> and
+ *      <code>q</code> arrays, carrying a number split across two chunks
+ *      over, and hands the emptied chunk back to the reader.</li>
+ *  <li>The calling thread applies each batch with
+ *      {@link UnionFind#unionAll(int[], int[])}.</li>
+ * </ol>
+ *
+ * The stages are joined by bounded queues and the reader can only take a
+ * chunk from a fixed pool, so a slow stage blocks the one before it and
+ * memory is bounded whatever the file size. Progress is published through
+ * counters that a scheduled reporter samples, the stages never wait on it.
+ *
+ * @author  Brett Ryan
+ */
+public final class EdgePipeline {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    public static final int DEFAULT_BATCH_SIZE = 1 << 14;
+    public static final int DEFAULT_QUEUE_DEPTH = 4;
+
+
+    /**
+     * Receives progress samples from the reporter thread.
+     */
+    @FunctionalInterface
+    public static interface ProgressListener {
+
+        void progress(long bytesRead, long totalBytes, long edgesParsed, long edgesApplied);
+
+    }
+
+    private static final Chunk END_OF_CHUNKS = new Chunk(0);
+    private static final Batch END_OF_BATCHES = new Batch(null, null, 0);
+
+    private final int chunkSize;
+    private final int batchSize;
+    private final int queueDepth;
+    private final long reportMillis;
+    private final ProgressListener listener;
+
+    public EdgePipeline() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_DEPTH, 0, null);
+    }
+
+    /**
+     * Create a new {@link EdgePipeline} instance.
+     *
+     * @param   chunkSize
+     *          Bytes read at a time.
+     * @param   batchSize
+     *          Edges per batch handed to the union find.
+     * @param   queueDepth
+     *          Chunks and batches that may wait between stages.
+     * @param   reportMillis
+     *          Period between progress samples.
+     * @param   listener
+     *          Receives progress samples, <code>null</code> for none.
+     */
+    public EdgePipeline(int chunkSize, int batchSize, int queueDepth, long reportMillis, ProgressListener listener) {
+        if (chunkSize < 1 || batchSize < 1 || queueDepth < 1) {
+            throw new IllegalArgumentException("Chunk size, batch size and queue depth must be positive");
+        }
+        if (listener != null && reportMillis <= 0) {
+            throw new IllegalArgumentException("Report period must be positive: " + reportMillis);
+        }
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.queueDepth = queueDepth;
+        this.reportMillis = reportMillis;
+        this.listener = listener;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String fn = args.length > 0 ? args[0] : "largeUF.txt";
+        EdgePipeline pipeline = new EdgePipeline(
+                DEFAULT_CHUNK_SIZE, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_DEPTH, 1000,
+                (read, total, parsed, applied) -> System.out.format(
+                        "%5.1f%% read, %,d edges parsed, %,d applied%n", 100.0 * read / Math.max(1, total), parsed, applied));
+        UnionFind uf = pipeline.load(App.dataFile(fn), AppUnionFind.SolutionWeightedQuickUnionPathCompression::new);
+        System.out.println(uf.count() + " components.");
+    }
+
+    /**
+     * Load a UF text file.
+     *
+     * @param   file
+     *          Element count followed by <code>p q</code> pairs.
+     * @param   factory
+     *          Creates the union find given the element count.
+     * @return  Union find with every edge applied.
+     * @throws  IOException
+     *          If the file can not be read or is malformed.
+     */
+    public UnionFind load(Path file, IntFunction<? extends UnionFind> factory) throws IOException {
+        Progress progress = new Progress(Files.size(file));
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(queueDepth + 2);
+        BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(queueDepth + 3);
+        BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(queueDepth);
+        for (int i = 0; i < queueDepth + 2; i++) {
+            free.add(new Chunk(chunkSize));
+        }
+
+        ExecutorService stages = Executors.newFixedThreadPool(2, daemonThreads("edge-pipeline-"));
+        ScheduledExecutorService reporter = null;
+        try {
+            Future<?> reading = stages.submit(() -> {
+                read(file, free, chunks, progress);
+                return null;
+            });
+            Future<?> parsing = stages.submit(() -> {
+                parse(free, chunks, batches, progress);
+                return null;
+            });
+            if (listener != null) {
+                reporter = Executors.newSingleThreadScheduledExecutor(daemonThreads("edge-pipeline-progress-"));
+                reporter.scheduleAtFixedRate(progress::report, reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+            }
+
+            UnionFind uf = apply(batches, factory, progress);
+            // The parser is checked first, if it failed the reader may be
+            // blocked waiting for a chunk that will never be returned.
+            parsing.get();
+            reading.get();
+            if (uf == null) {
+                throw new IOException("Missing element count: " + file);
+            }
+            if (listener != null) {
+                progress.report();
+            }
+            return uf;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted loading " + file);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            stop(stages);
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Interrupts the stages and waits for both to finish, so none outlives
+     * the load. Neither stage blocks once interrupted as the end markers are
+     * offered, not put.
+     */
+    private static void stop(ExecutorService stages) {
+        stages.shutdownNow();
+        boolean interrupted = false;
+        while (!stages.isTerminated()) {
+            try {
+                stages.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void read(Path file, BlockingQueue<Chunk> free, BlockingQueue<Chunk> chunks, Progress progress)
+            throws IOException, InterruptedException {
+        try (InputStream in = Files.newInputStream(file)) {
+            while (true) {
+                Chunk c = free.take();
+                int n = 0;
+                int r;
+                while (n < c.data.length && (r = in.read(c.data, n, c.data.length - n)) >= 0) {
+                    n += r;
+                }
+                if (n == 0) {
+                    free.add(c);
+                    break;
+                }
+                c.length = n;
+                chunks.put(c);
+                progress.bytesRead.add(n);
+            }
+        } finally {
+            // Always room, the queue holds every chunk in the pool and the
+            // marker.
+            chunks.offer(END_OF_CHUNKS);
+        }
+    }
+
+    private void parse(BlockingQueue<Chunk> free, BlockingQueue<Chunk> chunks, BlockingQueue<Batch> batches,
+                       Progress progress) throws IOException, InterruptedException {
+        boolean done = false;
+        try {
+            Parser parser = new Parser(batches, progress);
+            Chunk c;
+            while ((c = chunks.take()) != END_OF_CHUNKS) {
+                parser.parse(c.data, c.length);
+                free.put(c);
+            }
+            parser.finish();
+            batches.put(END_OF_BATCHES);
+            done = true;
+        } finally {
+            if (!done) {
+                // Unapplied batches are dropped so the marker fits whether
+                // or not the apply stage is still taking.
+                batches.clear();
+                batches.offer(END_OF_BATCHES);
+            }
+        }
+    }
+
+    /**
+     * Applies batches until the end marker, returning <code>null</code> if
+     * the input held no element count.
+     */
+    private static UnionFind apply(BlockingQueue<Batch> batches, IntFunction<? extends UnionFind> factory,
+                                   Progress progress) throws InterruptedException {
+        UnionFind uf = null;
+        Batch b;
+        while ((b = batches.take()) != END_OF_BATCHES) {
+            if (b.ps == null) {
+                uf = factory.apply(b.n);
+            } else {
+                uf.unionAll(b.ps, b.qs);
+                progress.edgesApplied.add(b.ps.length);
+            }
+        }
+        return uf;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+
+    /**
+     * Incremental form of {@link MappedTokenizer#forEachInt} that keeps a
+     * partial number between chunks and groups the values into batches.
+     */
+    private final class Parser {
+
+        private final BlockingQueue<Batch> batches;
+        private final Progress progress;
+        private long pos;
+        private long value;
+        private int digits;
+        private boolean inToken;
+        private boolean negative;
+        private boolean header;
+        private int n;
+        private int[] ps = new int[batchSize];
+        private int[] qs = new int[batchSize];
+        private int edges;
+        private boolean haveP;
+
+        Parser(BlockingQueue<Batch> batches, Progress progress) {
+            this.batches = batches;
+            this.progress = progress;
+        }
+
+        void parse(byte[] data, int length) throws InterruptedException {
+            for (int i = 0; i < length; i++, pos++) {
+                byte b = data[i];
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    if (++digits > 10) {
+                        throw new NumberFormatException("Value out of int range at byte " + pos);
+                    }
+                    inToken = true;
+                } else if (MappedTokenizer.isWhitespace(b)) {
+                    if (inToken) {
+                        accept(MappedTokenizer.toInt(value, digits, negative, pos));
+                        value = 0;
+                        digits = 0;
+                        inToken = false;
+                        negative = false;
+                    }
+                } else if ((b == '-' || b == '+') && !inToken) {
+                    negative = b == '-';
+                    inToken = true;
+                } else {
+                    throw new NumberFormatException("Unexpected character '" + (char) b + "' at byte " + pos);
+                }
+            }
+        }
+
+        void finish() throws IOException, InterruptedException {
+            if (inToken) {
+                accept(MappedTokenizer.toInt(value, digits, negative, pos));
+            }
+            if (haveP) {
+                throw new IOException("Odd number of endpoints, last edge is incomplete");
+            }
+            if (edges > 0) {
+                send(Arrays.copyOf(ps, edges), Arrays.copyOf(qs, edges));
+            }
+        }
+
+        private void accept(int v) throws InterruptedException {
+            if (!header) {
+                header = true;
+                n = v;
+                batches.put(new Batch(null, null, v));
+                return;
+            }
+            if (v < 0 || v >= n) {
+                throw new IllegalArgumentException("Element " + v + " not in [0, " + n + ")");
+            }
+            if (!haveP) {
+                ps[edges] = v;
+                haveP = true;
+                return;
+            }
+            qs[edges++] = v;
+            haveP = false;
+            if (edges == batchSize) {
+                send(ps, qs);
+                ps = new int[batchSize];
+                qs = new int[batchSize];
+            }
+        }
+
+        private void send(int[] p, int[] q) throws InterruptedException {
+            batches.put(new Batch(p, q, 0));
+            progress.edgesParsed.add(p.length);
+            edges = 0;
+        }
+
+    }
+
+
+    private static final class Chunk {
+
+        final byte[] data;
+        int length;
+
+        Chunk(int size) {
+            this.data = new byte[size];
+        }
+
+    }
+
+
+    /**
+     * Edges to apply, or the element count alone when <code>ps</code> is
+     * <code>null</code>.
+     */
+    private static final class Batch {
+
+        final int[] ps;
+        final int[] qs;
+        final int n;
+
+        Batch(int[] ps, int[] qs, int n) {
+            this.ps = ps;
+            this.qs = qs;
+            this.n = n;
+        }
+
+    }
+
+
+    /**
+     * Counters written by the stages and sampled by the reporter.
+     */
+    private final class Progress {
+
+        final long totalBytes;
+        final LongAdder bytesRead = new LongAdder();
+        final LongAdder edgesParsed = new LongAdder();
+        final LongAdder edgesApplied = new LongAdder();
+
+        Progress(long totalBytes) {
+            this.totalBytes = totalBytes;
+        }
+
+        void report() {
+            listener.progress(bytesRead.sum(), totalBytes, edgesParsed.sum(), edgesApplied.sum());
+        }
+
+    }
+
+}
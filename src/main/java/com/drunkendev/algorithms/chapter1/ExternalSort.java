@@ -0,0 +1,269 @@
+/*
+ * ExternalSort.java    Oct 18 2026, 13:32
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * External merge sort of whitespace separated tokens for inputs that do not
+ * fit in the heap.
+ *
+ * Tokens are read into runs until the memory budget is reached, each run is
+ * sorted in memory with the given {@link AppSorting.Sorter} and spilled to a
+ * temp file. Runs are then merged with a {@link KWayMerge}, at most
+ * <code>fanIn</code> at a time, until a final merge writes the output with one
+ * token per line. All reads and writes are sequential and buffered.
+ *
+ * @author  Brett Ryan
+ */
+public final class ExternalSort {
+
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    public static final int DEFAULT_FAN_IN = 64;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Rough heap cost of a token excluding its characters: the String and its
+     * backing array headers plus the reference held by the run.
+     */
+    private static final int STRING_OVERHEAD = 56;
+
+    private final AppSorting.Sorter sorter;
+    private final long memoryBudget;
+    private final int fanIn;
+    private final Path tempDir;
+
+    public ExternalSort(AppSorting.Sorter sorter) {
+        this(sorter, DEFAULT_MEMORY_BUDGET, DEFAULT_FAN_IN, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Create a new {@link ExternalSort} instance.
+     *
+     * @param   sorter
+     *          Sorter used to sort each run in memory.
+     * @param   memoryBudget
+     *          Approximate number of bytes of tokens held in memory per run.
+     * @param   fanIn
+     *          Maximum number of runs merged at once.
+     * @param   tempDir
+     *          Directory runs are spilled to.
+     */
+    public ExternalSort(AppSorting.Sorter sorter, long memoryBudget, int fanIn, Path tempDir) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Fan in must be at least 2: " + fanIn);
+        }
+        this.sorter = sorter;
+        this.memoryBudget = memoryBudget;
+        this.fanIn = fanIn;
+        this.tempDir = tempDir;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 1 ? args[1] : "target/sorted.txt");
+        new ExternalSort(new AppSorting.QuickSort()).sort(args.length > 0 ? args[0] : "leipzig1M.txt", out);
+        System.out.println("Sorted to " + out);
+    }
+
+    /**
+     * Sort the tokens of a data file from {@link App#DATA_PATH}.
+     *
+     * @param   fileName
+     *          Data file name.
+     * @param   output
+     *          File the sorted tokens are written to, one per line.
+     * @throws  IOException
+     *          If reading the input or writing runs or output fails.
+     */
+    public void sort(String fileName, Path output) throws IOException {
+        try (InputStream in = App.dataStream(fileName)) {
+            sort(in, output);
+        }
+    }
+
+    public void sort(InputStream in, Path output) throws IOException {
+        List<Path> created = new ArrayList<>();
+        try {
+            List<Path> runs = createRuns(in, output, created);
+            while (runs.size() > fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    if (group.size() == 1) {
+                        next.add(group.get(0));
+                        continue;
+                    }
+                    Path run = newRun(created);
+                    merge(group, run);
+                    for (Path p : group) {
+                        Files.delete(p);
+                    }
+                    next.add(run);
+                }
+                runs = next;
+            }
+            if (!runs.isEmpty()) {
+                merge(runs, output);
+            }
+        } finally {
+            for (Path p : created) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Reads the input into sorted runs.
+     *
+     * If the whole input fits in a single run it is written straight to
+     * <code>output</code> and no runs are returned.
+     */
+    private List<Path> createRuns(InputStream in, Path output, List<Path> created) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        ArrayList<String> run = new ArrayList<>();
+        long used = 0;
+        BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        String line;
+        while ((line = r.readLine()) != null) {
+            for (String token : AppSorting.WHITESPACE_PATTERN.split(line)) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                run.add(token);
+                used += STRING_OVERHEAD + 2L * token.length();
+                if (used >= memoryBudget) {
+                    Path p = newRun(created);
+                    spill(run, p);
+                    runs.add(p);
+                    used = 0;
+                }
+            }
+        }
+        if (runs.isEmpty()) {
+            spill(run, output);
+        } else if (!run.isEmpty()) {
+            Path p = newRun(created);
+            spill(run, p);
+            runs.add(p);
+        }
+        return runs;
+    }
+
+    /**
+     * Sorts and writes a run, leaving <code>run</code> empty. The list is
+     * emptied and trimmed before sorting so its tokens are not referenced
+     * twice while the sort runs.
+     */
+    private void spill(ArrayList<String> run, Path p) throws IOException {
+        String[] a = run.toArray(new String[run.size()]);
+        run.clear();
+        run.trimToSize();
+        sorter.sortImpl(a);
+        try (Writer w = newWriter(p)) {
+            for (String s : a) {
+                w.write(s);
+                w.write('\n');
+            }
+        }
+    }
+
+    private void merge(List<Path> inputs, Path output) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>(inputs.size());
+        try {
+            for (Path p : inputs) {
+                readers.add(newReader(p));
+            }
+            KWayMerge<String> merged = KWayMerge.ofReaders(readers);
+            try (Writer w = newWriter(output)) {
+                while (merged.hasNext()) {
+                    w.write(merged.next());
+                    w.write('\n');
+                }
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        } catch (Throwable ex) {
+            close(readers, ex);
+            throw ex;
+        }
+        close(readers, null);
+    }
+
+    /**
+     * Closes every reader even when some fail, so none are left open to
+     * block deleting the runs. Failures are suppressed into
+     * <code>failure</code> if given, otherwise the first is thrown with the
+     * rest suppressed.
+     */
+    private static void close(List<BufferedReader> readers, Throwable failure) throws IOException {
+        IOException first = null;
+        for (BufferedReader r : readers) {
+            try {
+                r.close();
+            } catch (IOException ex) {
+                if (failure != null) {
+                    failure.addSuppressed(ex);
+                } else if (first == null) {
+                    first = ex;
+                } else {
+                    first.addSuppressed(ex);
+                }
+            }
+        }
+        if (first != null) {
+            throw first;
+        }
+    }
+
+    private Path newRun(List<Path> created) throws IOException {
+        Path p = Files.createTempFile(tempDir, "run-", ".txt");
+        created.add(p);
+        return p;
+    }
+
+    private static BufferedReader newReader(Path p) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(p), StandardCharsets.UTF_8),
+                                  BUFFER_SIZE);
+    }
+
+    private static Writer newWriter(Path p) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(p), StandardCharsets.UTF_8),
+                                  BUFFER_SIZE);
+    }
+
+}
@@ -0,0 +1,326 @@
+/*
+ * KWayMerge.java    Oct 18 2026, 16:05
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import com.drunkendev.algorithms.chapter1.Metrics.Counter;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Lazy k-way merge of any number of sorted sources.
+ *
+ * Sources are iterators, arrays or readers of whitespace separated tokens and
+ * each must already be sorted. The merge is driven by a loser tree: the root
+ * holds the source with the smallest head and each internal node the loser of
+ * the match played there, so replacing the winner costs exactly
+ * <code>lg k</code> compares against the losers on its path. Only the head of
+ * each source is held in memory and nothing is read until it is asked for,
+ * the first element is available after one element has been read from each
+ * source.
+ *
+ * Equal elements are emitted in source order, making the merge stable.
+ *
+ * @param   <T>
+ *          Element type.
+ *
+ * @author  Brett Ryan
+ */
+public final class KWayMerge<T extends Comparable<? super T>> implements Iterator<T>, Closeable {
+
+    private final Iterator<? extends T>[] sources;
+    private final List<? extends Closeable> closeables;
+    private final Object[] heads;
+
+    /**
+     * <code>tree[0]</code> is the overall winner, <code>tree[1..k)</code> the
+     * loser at each internal node. Leaf <code>i</code> is node
+     * <code>k + i</code>.
+     */
+    private final int[] tree;
+
+    @SuppressWarnings("unchecked")
+    private KWayMerge(List<? extends Iterator<? extends T>> sources, List<? extends Closeable> closeables) {
+        int k = sources.size();
+        this.sources = sources.toArray(new Iterator[k]);
+        this.closeables = closeables;
+        this.heads = new Object[k];
+        this.tree = new int[Math.max(k, 1)];
+        for (int i = 0; i < k; i++) {
+            advance(i);
+        }
+        build();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String[] files = args.length > 0 ? args : new String[]{"words3.txt", "tiny.txt"};
+        try (KWayMerge<String> m = ofDataFiles(files)) {
+            m.stream().limit(20).forEach(System.out::println);
+        }
+    }
+
+    /**
+     * Merges sorted iterators.
+     */
+    public static <T extends Comparable<? super T>> KWayMerge<T> of(List<? extends Iterator<? extends T>> sources) {
+        return new KWayMerge<>(sources, new ArrayList<Closeable>());
+    }
+
+    /**
+     * Merges sorted arrays without copying them.
+     */
+    @SafeVarargs
+    public static <T extends Comparable<? super T>> KWayMerge<T> ofArrays(T[]... arrays) {
+        List<Iterator<T>> its = new ArrayList<>(arrays.length);
+        for (T[] a : arrays) {
+            its.add(Arrays.asList(a).iterator());
+        }
+        return of(its);
+    }
+
+    /**
+     * Merges the whitespace separated tokens of readers, each of which must
+     * yield its tokens in sorted order. The readers are closed by
+     * {@link #close()}.
+     *
+     * Read failures are thrown from {@link #next()} as
+     * {@link UncheckedIOException}.
+     */
+    public static KWayMerge<String> ofReaders(List<? extends BufferedReader> readers) {
+        List<Iterator<String>> its = new ArrayList<>(readers.size());
+        for (BufferedReader r : readers) {
+            its.add(new TokenIterator(r));
+        }
+        return new KWayMerge<>(its, readers);
+    }
+
+    /**
+     * Merges the tokens of sorted data files opened with
+     * {@link App#dataReader(String)}.
+     *
+     * @throws  IOException
+     *          If a file can not be opened, any already opened are closed.
+     */
+    public static KWayMerge<String> ofDataFiles(String... fileNames) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>(fileNames.length);
+        try {
+            for (String fn : fileNames) {
+                readers.add(App.dataReader(fn));
+            }
+            return ofReaders(readers);
+        } catch (IOException | RuntimeException ex) {
+            for (BufferedReader r : readers) {
+                try {
+                    r.close();
+                } catch (IOException suppressed) {
+                    ex.addSuppressed(suppressed);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return sources.length > 0 && heads[tree[0]] != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int w = tree[0];
+        T x = (T) heads[w];
+        advance(w);
+        replay(w);
+        return x;
+    }
+
+    /**
+     * The remaining merged elements as a sequential stream, closing the
+     * stream closes this merge.
+     */
+    public Stream<T> stream() {
+        Spliterator<T> s = Spliterators.spliteratorUnknownSize(
+                this, Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL);
+        return StreamSupport.stream(s, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException err = null;
+        for (Closeable c : closeables) {
+            try {
+                c.close();
+            } catch (IOException ex) {
+                if (err == null) {
+                    err = ex;
+                } else {
+                    err.addSuppressed(ex);
+                }
+            }
+        }
+        if (err != null) {
+            throw err;
+        }
+    }
+
+    private void advance(int i) {
+        if (sources[i].hasNext()) {
+            T x = sources[i].next();
+            if (x == null) {
+                throw new NullPointerException("Source " + i + " yielded null");
+            }
+            heads[i] = x;
+        } else {
+            heads[i] = null;
+        }
+    }
+
+    /**
+     * Plays every match bottom up, keeping the loser at each node.
+     */
+    private void build() {
+        int k = sources.length;
+        if (k < 2) {
+            return;
+        }
+        int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int n = k - 1; n >= 1; n--) {
+            int l = winners[2 * n];
+            int r = winners[2 * n + 1];
+            if (beats(l, r)) {
+                winners[n] = l;
+                tree[n] = r;
+            } else {
+                winners[n] = r;
+                tree[n] = l;
+            }
+        }
+        tree[0] = winners[1];
+    }
+
+    /**
+     * Replays the matches on the path from leaf <code>i</code> to the root
+     * after its head changed.
+     */
+    private void replay(int i) {
+        int winner = i;
+        for (int n = (i + sources.length) >> 1; n >= 1; n >>= 1) {
+            if (beats(tree[n], winner)) {
+                int t = tree[n];
+                tree[n] = winner;
+                winner = t;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * Exhausted sources lose every match, ties go to the lower source.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean beats(int a, int b) {
+        if (heads[a] == null) {
+            return false;
+        }
+        if (heads[b] == null) {
+            return true;
+        }
+        Metrics.increment(Counter.COMPARES);
+        int c = ((T) heads[a]).compareTo((T) heads[b]);
+        return c < 0 || c == 0 && a < b;
+    }
+
+
+    /**
+     * Whitespace separated tokens of a reader, read a line at a time.
+     */
+    private static final class TokenIterator implements Iterator<String> {
+
+        private final BufferedReader reader;
+        private String[] tokens = new String[0];
+        private int pos;
+        private String next;
+
+        TokenIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (pos < tokens.length) {
+                    String t = tokens[pos++];
+                    if (!t.isEmpty()) {
+                        next = t;
+                    }
+                    continue;
+                }
+                String line;
+                try {
+                    line = reader.readLine();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                if (line == null) {
+                    return false;
+                }
+                tokens = AppSorting.WHITESPACE_PATTERN.split(line);
+                pos = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String t = next;
+            next = null;
+            return t;
+        }
+
+    }
+
+}
@@ -0,0 +1,321 @@
+/*
+ * Kernels.java    Oct 18 2026, 21:40
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+
+/**
+ * Inner loops for sorting <code>int[]</code> and <code>long[]</code> without
+ * data dependent branches.
+ *
+ * {@link #get()} returns the vectorized kernels from
+ * <code>src/vector/java</code> when they were compiled, which the
+ * <code>vector</code> profile does on JDK 17 or later, and the JVM was started
+ * with <code>--add-modules jdk.incubator.vector</code>. Otherwise, or with
+ * <code>-Dalgs4.kernels=scalar</code>, it returns {@link #SCALAR}.
+ *
+ * Kernels do not record {@link Metrics}, callers account for whole passes.
+ * Ranges are half open, <code>from</code> inclusive and <code>to</code>
+ * exclusive.
+ *
+ * @author  Brett Ryan
+ */
+abstract class Kernels {
+
+    static final Kernels SCALAR = new Scalar();
+
+    private static final String VECTOR_CLASS = "com.drunkendev.algorithms.chapter1.VectorKernels";
+
+    private static final Kernels SELECTED = load();
+
+    private static Kernels load() {
+        if ("scalar".equals(System.getProperty("algs4.kernels"))) {
+            return SCALAR;
+        }
+        try {
+            return (Kernels) Class.forName(VECTOR_CLASS).newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            // Not compiled, an older JVM, or the incubator module not added.
+            return SCALAR;
+        }
+    }
+
+    /**
+     * Vectorized kernels when available, otherwise {@link #SCALAR}.
+     */
+    static Kernels get() {
+        return SELECTED;
+    }
+
+    abstract String name();
+
+    abstract boolean isSorted(int[] a, int from, int to);
+
+    abstract boolean isSorted(long[] a, int from, int to);
+
+    /**
+     * Number of elements each {@link #sortBlocks(int[], int, int)} block
+     * holds, a power of two.
+     */
+    abstract int blockSize(int[] a);
+
+    abstract int blockSize(long[] a);
+
+    /**
+     * Sorts each run of {@link #blockSize(int[])} elements starting at
+     * <code>from</code> with a sorting network, a shorter final block is
+     * insertion sorted.
+     */
+    abstract void sortBlocks(int[] a, int from, int to);
+
+    abstract void sortBlocks(long[] a, int from, int to);
+
+    /**
+     * Merges the sorted runs <code>src[from, mid)</code> and
+     * <code>src[mid, to)</code> into <code>dst[from, to)</code>.
+     */
+    abstract void merge(int[] src, int from, int mid, int to, int[] dst);
+
+    abstract void merge(long[] src, int from, int mid, int to, long[] dst);
+
+    /**
+     * Stable partition of <code>a[from, to)</code> into the elements less
+     * than <code>pivot</code> followed by the rest.
+     *
+     * @param   buf
+     *          Scratch space of at least <code>to - from</code> elements.
+     * @return  Index of the first element not less than <code>pivot</code>.
+     */
+    abstract int partition(int[] a, int from, int to, int pivot, int[] buf);
+
+    abstract int partition(long[] a, int from, int to, long pivot, long[] buf);
+
+    @Override
+    public String toString() {
+        return name();
+    }
+
+
+    /**
+     * Plain Java kernels written so the JIT may use conditional moves in
+     * place of branches.
+     */
+    static class Scalar extends Kernels {
+
+        private static final int BLOCK = 8;
+
+        @Override
+        String name() {
+            return "scalar";
+        }
+
+        @Override
+        boolean isSorted(int[] a, int from, int to) {
+            // Non short circuit or, one test per eight elements.
+            int i = from + 1;
+            for (; i + 8 <= to; i += 8) {
+                if (a[i] < a[i - 1] | a[i + 1] < a[i] | a[i + 2] < a[i + 1] | a[i + 3] < a[i + 2]
+                    | a[i + 4] < a[i + 3] | a[i + 5] < a[i + 4] | a[i + 6] < a[i + 5] | a[i + 7] < a[i + 6]) {
+                    return false;
+                }
+            }
+            for (; i < to; i++) {
+                if (a[i] < a[i - 1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean isSorted(long[] a, int from, int to) {
+            int i = from + 1;
+            for (; i + 8 <= to; i += 8) {
+                if (a[i] < a[i - 1] | a[i + 1] < a[i] | a[i + 2] < a[i + 1] | a[i + 3] < a[i + 2]
+                    | a[i + 4] < a[i + 3] | a[i + 5] < a[i + 4] | a[i + 6] < a[i + 5] | a[i + 7] < a[i + 6]) {
+                    return false;
+                }
+            }
+            for (; i < to; i++) {
+                if (a[i] < a[i - 1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int blockSize(int[] a) {
+            return BLOCK;
+        }
+
+        @Override
+        int blockSize(long[] a) {
+            return BLOCK;
+        }
+
+        @Override
+        void sortBlocks(int[] a, int from, int to) {
+            int i = from;
+            for (; i + BLOCK <= to; i += BLOCK) {
+                network8(a, i);
+            }
+            insertionSort(a, i, to);
+        }
+
+        @Override
+        void sortBlocks(long[] a, int from, int to) {
+            int i = from;
+            for (; i + BLOCK <= to; i += BLOCK) {
+                network8(a, i);
+            }
+            insertionSort(a, i, to);
+        }
+
+        /**
+         * Optimal 19 comparator network for 8 elements.
+         */
+        private static void network8(int[] a, int o) {
+            cswap(a, o, o + 2); cswap(a, o + 1, o + 3); cswap(a, o + 4, o + 6); cswap(a, o + 5, o + 7);
+            cswap(a, o, o + 4); cswap(a, o + 1, o + 5); cswap(a, o + 2, o + 6); cswap(a, o + 3, o + 7);
+            cswap(a, o, o + 1); cswap(a, o + 2, o + 3); cswap(a, o + 4, o + 5); cswap(a, o + 6, o + 7);
+            cswap(a, o + 2, o + 4); cswap(a, o + 3, o + 5);
+            cswap(a, o + 1, o + 4); cswap(a, o + 3, o + 6);
+            cswap(a, o + 1, o + 2); cswap(a, o + 3, o + 4); cswap(a, o + 5, o + 6);
+        }
+
+        private static void network8(long[] a, int o) {
+            cswap(a, o, o + 2); cswap(a, o + 1, o + 3); cswap(a, o + 4, o + 6); cswap(a, o + 5, o + 7);
+            cswap(a, o, o + 4); cswap(a, o + 1, o + 5); cswap(a, o + 2, o + 6); cswap(a, o + 3, o + 7);
+            cswap(a, o, o + 1); cswap(a, o + 2, o + 3); cswap(a, o + 4, o + 5); cswap(a, o + 6, o + 7);
+            cswap(a, o + 2, o + 4); cswap(a, o + 3, o + 5);
+            cswap(a, o + 1, o + 4); cswap(a, o + 3, o + 6);
+            cswap(a, o + 1, o + 2); cswap(a, o + 3, o + 4); cswap(a, o + 5, o + 6);
+        }
+
+        private static void cswap(int[] a, int i, int j) {
+            int x = a[i];
+            int y = a[j];
+            a[i] = Math.min(x, y);
+            a[j] = Math.max(x, y);
+        }
+
+        private static void cswap(long[] a, int i, int j) {
+            long x = a[i];
+            long y = a[j];
+            a[i] = Math.min(x, y);
+            a[j] = Math.max(x, y);
+        }
+
+        static void insertionSort(int[] a, int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                int v = a[i];
+                int j = i;
+                for (; j > from && v < a[j - 1]; j--) {
+                    a[j] = a[j - 1];
+                }
+                a[j] = v;
+            }
+        }
+
+        static void insertionSort(long[] a, int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                long v = a[i];
+                int j = i;
+                for (; j > from && v < a[j - 1]; j--) {
+                    a[j] = a[j - 1];
+                }
+                a[j] = v;
+            }
+        }
+
+        @Override
+        void merge(int[] src, int from, int mid, int to, int[] dst) {
+            int i = from;
+            int j = mid;
+            int k = from;
+            while (i < mid && j < to) {
+                int x = src[i];
+                int y = src[j];
+                int right = y < x ? 1 : 0;
+                dst[k++] = right == 1 ? y : x;
+                j += right;
+                i += 1 - right;
+            }
+            System.arraycopy(src, i, dst, k, mid - i);
+            System.arraycopy(src, j, dst, k + mid - i, to - j);
+        }
+
+        @Override
+        void merge(long[] src, int from, int mid, int to, long[] dst) {
+            int i = from;
+            int j = mid;
+            int k = from;
+            while (i < mid && j < to) {
+                long x = src[i];
+                long y = src[j];
+                int right = y < x ? 1 : 0;
+                dst[k++] = right == 1 ? y : x;
+                j += right;
+                i += 1 - right;
+            }
+            System.arraycopy(src, i, dst, k, mid - i);
+            System.arraycopy(src, j, dst, k + mid - i, to - j);
+        }
+
+        /**
+         * Every element is written to both sides and only the matching
+         * cursor advances. Writing the lower side in place is safe as its
+         * cursor never passes the read position.
+         */
+        @Override
+        int partition(int[] a, int from, int to, int pivot, int[] buf) {
+            int lo = from;
+            int hi = 0;
+            for (int i = from; i < to; i++) {
+                int x = a[i];
+                int less = x < pivot ? 1 : 0;
+                a[lo] = x;
+                buf[hi] = x;
+                lo += less;
+                hi += 1 - less;
+            }
+            System.arraycopy(buf, 0, a, lo, hi);
+            return lo;
+        }
+
+        @Override
+        int partition(long[] a, int from, int to, long pivot, long[] buf) {
+            int lo = from;
+            int hi = 0;
+            for (int i = from; i < to; i++) {
+                long x = a[i];
+                int less = x < pivot ? 1 : 0;
+                a[lo] = x;
+                buf[hi] = x;
+                lo += less;
+                hi += 1 - less;
+            }
+            System.arraycopy(buf, 0, a, lo, hi);
+            return lo;
+        }
+
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * MappedTokenizer.java    Oct 18 2026, 14:18
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+
+/**
+ * Whitespace tokenizer that memory maps a file and scans its bytes directly.
+ *
+ * No regular expressions or intermediate strings are involved, integers are
+ * parsed straight from the bytes. Files are mapped in windows so inputs
+ * larger than 2GB are supported.
+ *
+ * Only ASCII whitespace separates tokens, which is all the algs4-data files
+ * use.
+ *
+ * @author  Brett Ryan
+ */
+final class MappedTokenizer {
+
+    private static final long WINDOW = 1L << 30;
+
+    private MappedTokenizer() {
+    }
+
+
+    /**
+     * Receives each token as a slice of a reused buffer, the contents are only
+     * valid for the duration of the call.
+     */
+    @FunctionalInterface
+    interface TokenHandler {
+
+        void accept(byte[] buf, int off, int len);
+
+    }
+
+    static void forEachToken(Path file, TokenHandler handler) throws IOException {
+        byte[] token = new byte[64];
+        int len = 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long pos = 0; pos < size; pos += WINDOW) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, size - pos));
+                int limit = buf.limit();
+                for (int i = 0; i < limit; i++) {
+                    byte b = buf.get(i);
+                    if (isWhitespace(b)) {
+                        if (len > 0) {
+                            handler.accept(token, 0, len);
+                            len = 0;
+                        }
+                    } else {
+                        if (len == token.length) {
+                            token = Arrays.copyOf(token, len * 2);
+                        }
+                        token[len++] = b;
+                    }
+                }
+            }
+        }
+        if (len > 0) {
+            handler.accept(token, 0, len);
+        }
+    }
+
+    /**
+     * Parse every token of a file as a decimal <code>int</code>.
+     *
+     * @param   file
+     *          File to read.
+     * @param   consumer
+     *          Receives each value in order.
+     * @throws  IOException
+     *          If the file can not be read.
+     * @throws  NumberFormatException
+     *          If a token is not a valid <code>int</code>.
+     */
+    static void forEachInt(Path file, IntConsumer consumer) throws IOException {
+        long value = 0;
+        int digits = 0;
+        boolean inToken = false;
+        boolean negative = false;
+        long size;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = ch.size();
+            for (long pos = 0; pos < size; pos += WINDOW) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, size - pos));
+                int limit = buf.limit();
+                for (int i = 0; i < limit; i++) {
+                    byte b = buf.get(i);
+                    if (b >= '0' && b <= '9') {
+                        value = value * 10 + (b - '0');
+                        if (++digits > 10) {
+                            throw new NumberFormatException("Value out of int range at byte " + (pos + i));
+                        }
+                        inToken = true;
+                    } else if (isWhitespace(b)) {
+                        if (inToken) {
+                            consumer.accept(toInt(value, digits, negative, pos + i));
+                            value = 0;
+                            digits = 0;
+                            inToken = false;
+                            negative = false;
+                        }
+                    } else if ((b == '-' || b == '+') && !inToken) {
+                        negative = b == '-';
+                        inToken = true;
+                    } else {
+                        throw new NumberFormatException("Unexpected character '" + (char) b + "' at byte " + (pos + i));
+                    }
+                }
+            }
+        }
+        if (inToken) {
+            consumer.accept(toInt(value, digits, negative, size));
+        }
+    }
+
+    /**
+     * Read every <code>int</code> of a file into a primitive array.
+     */
+    static int[] readInts(Path file) throws IOException {
+        IntBuffer ints = new IntBuffer();
+        forEachInt(file, ints);
+        return ints.toArray();
+    }
+
+    static int toInt(long value, int digits, boolean negative, long at) {
+        long v = negative ? -value : value;
+        if (digits == 0 || v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Invalid int ending at byte " + at);
+        }
+        return (int) v;
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+
+
+    private static final class IntBuffer implements IntConsumer {
+
+        private int[] values = new int[1024];
+        private int size;
+
+        @Override
+        public void accept(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+    }
+
+}
@@ -0,0 +1,285 @@
+/*
+ * MappedUnionFind.java    Oct 18 2026, 17:46
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Union find over <code>long</code> element ids whose forest lives off heap
+ * in a memory mapped file.
+ *
+ * Links by rank, which needs one byte per element rather than a size, and
+ * uses path halving. Storage is 9 bytes per element, mapped in 1GB segments
+ * so the element count is not bound by array indexes.
+ *
+ * The file holds a header followed by the parents and then the ranks.
+ * Parents are stored as <code>parent + 1</code> with 0 meaning the element is
+ * a root, so a new file is all zeros and needs no initialisation pass and a
+ * forest can be reopened with {@link #open(Path)} exactly as it was left.
+ *
+ * Instances are not thread safe.
+ *
+ * @author  Brett Ryan
+ */
+public final class MappedUnionFind implements AppUnionFind.UnionFind, Closeable {
+
+    private static final int MAGIC = 0x55464d4d;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int COUNT_OFFSET = 16;
+
+    private static final int LONG_SHIFT = 27;
+    private static final long LONG_MASK = (1L << LONG_SHIFT) - 1;
+    private static final int BYTE_SHIFT = 30;
+    private static final long BYTE_MASK = (1L << BYTE_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] parentMaps;
+    private final LongBuffer[] parents;
+    private final MappedByteBuffer[] ranks;
+    private long count;
+
+    private MappedUnionFind(FileChannel channel, long size, long count) throws IOException {
+        this.channel = channel;
+        this.size = size;
+        this.count = count;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+        long parentBase = HEADER_SIZE;
+        parentMaps = new MappedByteBuffer[segments(size, LONG_SHIFT)];
+        parents = new LongBuffer[parentMaps.length];
+        for (int s = 0; s < parents.length; s++) {
+            long from = (long) s << LONG_SHIFT;
+            long len = Math.min(1L << LONG_SHIFT, size - from);
+            parentMaps[s] = channel.map(FileChannel.MapMode.READ_WRITE, parentBase + from * 8, len * 8);
+            parents[s] = parentMaps[s].asLongBuffer();
+        }
+
+        long rankBase = parentBase + size * 8;
+        ranks = new MappedByteBuffer[segments(size, BYTE_SHIFT)];
+        for (int s = 0; s < ranks.length; s++) {
+            long from = (long) s << BYTE_SHIFT;
+            long len = Math.min(1L << BYTE_SHIFT, size - from);
+            ranks[s] = channel.map(FileChannel.MapMode.READ_WRITE, rankBase + from, len);
+        }
+    }
+
+    /**
+     * Create a new forest of <code>size</code> singleton components, replacing
+     * any existing file.
+     *
+     * @param   file
+     *          File backing the forest.
+     * @param   size
+     *          Number of elements.
+     * @return  New union find.
+     * @throws  IOException
+     *          If the file can not be created or mapped.
+     */
+    public static MappedUnionFind create(Path file, long size) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        FileChannel ch = FileChannel.open(file,
+                                          StandardOpenOption.CREATE,
+                                          StandardOpenOption.TRUNCATE_EXISTING,
+                                          StandardOpenOption.READ,
+                                          StandardOpenOption.WRITE);
+        try {
+            MappedUnionFind uf = new MappedUnionFind(ch, size, size);
+            uf.header.putInt(0, MAGIC);
+            uf.header.putInt(4, VERSION);
+            uf.header.putLong(8, size);
+            uf.header.putLong(COUNT_OFFSET, size);
+            return uf;
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Reopen a forest previously built with {@link #create(Path, long)}.
+     *
+     * @param   file
+     *          File backing the forest.
+     * @return  Union find in the state it was closed.
+     * @throws  IOException
+     *          If the file can not be read or is not a forest file.
+     */
+    public static MappedUnionFind open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer hdr = ByteBuffer.allocate(HEADER_SIZE);
+            while (hdr.hasRemaining() && ch.read(hdr) >= 0) {
+            }
+            if (hdr.position() < HEADER_SIZE || hdr.getInt(0) != MAGIC) {
+                throw new IOException("Not a union find file: " + file);
+            }
+            if (hdr.getInt(4) != VERSION) {
+                throw new IOException("Unsupported union find file version " + hdr.getInt(4) + ": " + file);
+            }
+            return new MappedUnionFind(ch, hdr.getLong(8), hdr.getLong(COUNT_OFFSET));
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long longCount() {
+        return count;
+    }
+
+    public long find(long p) {
+        check(p);
+        while (true) {
+            long parent = parent(p);
+            if (parent == p) {
+                return p;
+            }
+            long grandparent = parent(parent);
+            if (grandparent != parent) {
+                setParent(p, grandparent);
+            }
+            p = grandparent;
+        }
+    }
+
+    public void union(long p, long q) {
+        long i = find(p);
+        long j = find(q);
+        if (i == j) {
+            return;
+        }
+        byte ri = rank(i);
+        byte rj = rank(j);
+        if (ri < rj) {
+            setParent(i, j);
+        } else if (ri > rj) {
+            setParent(j, i);
+        } else {
+            setParent(j, i);
+            setRank(i, (byte) (ri + 1));
+        }
+        count--;
+        header.putLong(COUNT_OFFSET, count);
+    }
+
+    public boolean connected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public void union(int p, int q) {
+        union((long) p, (long) q);
+    }
+
+    /**
+     * @throws  ArithmeticException
+     *          If there are more components than fit an <code>int</code>, use
+     *          {@link #longCount()}.
+     */
+    @Override
+    public int count() {
+        return Math.toIntExact(count);
+    }
+
+    /**
+     * @throws  ArithmeticException
+     *          If the root id does not fit an <code>int</code>, use
+     *          {@link #find(long)}.
+     */
+    @Override
+    public int find(int p) {
+        return Math.toIntExact(find((long) p));
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        return connected((long) p, (long) q);
+    }
+
+    /**
+     * Write any changes through to the file.
+     */
+    public void flush() {
+        header.force();
+        for (MappedByteBuffer b : parentMaps) {
+            b.force();
+        }
+        for (MappedByteBuffer b : ranks) {
+            b.force();
+        }
+    }
+
+    /**
+     * Flush and close the file.
+     *
+     * The mappings are released once collected, the JDK offers no way to
+     * unmap them eagerly.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private long parent(long p) {
+        long v = parents[(int) (p >>> LONG_SHIFT)].get((int) (p & LONG_MASK));
+        return v == 0 ? p : v - 1;
+    }
+
+    private void setParent(long p, long parent) {
+        parents[(int) (p >>> LONG_SHIFT)].put((int) (p & LONG_MASK), parent + 1);
+    }
+
+    private byte rank(long p) {
+        return ranks[(int) (p >>> BYTE_SHIFT)].get((int) (p & BYTE_MASK));
+    }
+
+    private void setRank(long p, byte rank) {
+        ranks[(int) (p >>> BYTE_SHIFT)].put((int) (p & BYTE_MASK), rank);
+    }
+
+    private void check(long p) {
+        if (p < 0 || p >= size) {
+            throw new IndexOutOfBoundsException("Element " + p + " not in [0, " + size + ")");
+        }
+    }
+
+    private static int segments(long size, int shift) {
+        return (int) ((size + (1L << shift) - 1) >>> shift);
+    }
+
+}
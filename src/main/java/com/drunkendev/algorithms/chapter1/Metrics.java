@@ -0,0 +1,242 @@
+/*
+ * Metrics.java    Oct 18 2026, 18:40
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Operation counters and timers shared by the sorting and union find code.
+ *
+ * Metrics are off unless the JVM is started with
+ * <code>-Dalgs4.metrics=true</code>. {@link #ENABLED} is a static final
+ * constant so when off every recording call folds to nothing once compiled
+ * and the instrumented code runs as if it were not there.
+ *
+ * When on, counters are {@link LongAdder}s so they may be updated from any
+ * number of threads. Use {@link #snapshot()} to read them and
+ * {@link Snapshot#toCsv()} or {@link Snapshot#toJson()} to export.
+ *
+ * @author  Brett Ryan
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("algs4.metrics");
+
+
+    public static enum Counter {
+
+        COMPARES("compares"),
+        EXCHANGES("exchanges"),
+        ARRAY_READS("array_reads"),
+        ARRAY_WRITES("array_writes"),
+        FINDS("finds"),
+        /** Total steps taken walking parent links over all finds. */
+        FIND_PATH("find_path");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+    }
+
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static final ConcurrentHashMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static void increment(Counter c) {
+        if (ENABLED) {
+            COUNTERS[c.ordinal()].increment();
+        }
+    }
+
+    public static void add(Counter c, long n) {
+        if (ENABLED) {
+            COUNTERS[c.ordinal()].add(n);
+        }
+    }
+
+    /**
+     * Record a single find that followed <code>length</code> parent links.
+     */
+    public static void find(int length) {
+        if (ENABLED) {
+            COUNTERS[Counter.FINDS.ordinal()].increment();
+            COUNTERS[Counter.FIND_PATH.ordinal()].add(length);
+        }
+    }
+
+    /**
+     * Start timing an operation.
+     *
+     * @return  Start time to pass to {@link #stop(String, long)}.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void stop(String operation, long start) {
+        if (ENABLED) {
+            long elapsed = System.nanoTime() - start;
+            Timer t = TIMERS.get(operation);
+            if (t == null) {
+                t = TIMERS.computeIfAbsent(operation, k -> new Timer());
+            }
+            t.count.increment();
+            t.nanos.add(elapsed);
+        }
+    }
+
+    public static void reset() {
+        for (LongAdder a : COUNTERS) {
+            a.reset();
+        }
+        TIMERS.clear();
+    }
+
+    public static Snapshot snapshot() {
+        Map<Counter, Long> counters = new EnumMap<>(Counter.class);
+        for (Counter c : Counter.values()) {
+            counters.put(c, COUNTERS[c.ordinal()].sum());
+        }
+        Map<String, long[]> timers = new TreeMap<>();
+        for (Map.Entry<String, Timer> e : TIMERS.entrySet()) {
+            timers.put(e.getKey(), new long[]{e.getValue().count.sum(), e.getValue().nanos.sum()});
+        }
+        return new Snapshot(counters, timers);
+    }
+
+
+    private static final class Timer {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+    }
+
+
+    /**
+     * Point in time copy of all counters and timers.
+     */
+    public static final class Snapshot {
+
+        private final Map<Counter, Long> counters;
+        private final Map<String, long[]> timers;
+
+        Snapshot(Map<Counter, Long> counters, Map<String, long[]> timers) {
+            this.counters = Collections.unmodifiableMap(counters);
+            this.timers = Collections.unmodifiableMap(timers);
+        }
+
+        public long get(Counter c) {
+            return counters.get(c);
+        }
+
+        public long count(String operation) {
+            long[] t = timers.get(operation);
+            return t == null ? 0 : t[0];
+        }
+
+        public long nanos(String operation) {
+            long[] t = timers.get(operation);
+            return t == null ? 0 : t[1];
+        }
+
+        /**
+         * Rows of <code>name,count,nanos</code>, counters leave nanos empty.
+         */
+        public String toCsv() {
+            StringBuilder sb = new StringBuilder("name,count,nanos\n");
+            for (Map.Entry<Counter, Long> e : counters.entrySet()) {
+                sb.append(e.getKey().key()).append(',').append(e.getValue()).append(",\n");
+            }
+            for (Map.Entry<String, long[]> e : timers.entrySet()) {
+                sb.append(csv(e.getKey())).append(',')
+                        .append(e.getValue()[0]).append(',')
+                        .append(e.getValue()[1]).append('\n');
+            }
+            return sb.toString();
+        }
+
+        public String toJson() {
+            StringBuilder sb = new StringBuilder("{\"counters\":{");
+            String sep = "";
+            for (Map.Entry<Counter, Long> e : counters.entrySet()) {
+                sb.append(sep).append('"').append(e.getKey().key()).append("\":").append(e.getValue());
+                sep = ",";
+            }
+            sb.append("},\"timers\":{");
+            sep = "";
+            for (Map.Entry<String, long[]> e : timers.entrySet()) {
+                sb.append(sep).append('"').append(json(e.getKey())).append("\":{\"count\":")
+                        .append(e.getValue()[0]).append(",\"nanos\":").append(e.getValue()[1]).append('}');
+                sep = ",";
+            }
+            return sb.append("}}").toString();
+        }
+
+        @Override
+        public String toString() {
+            return toCsv();
+        }
+
+        private static String csv(String s) {
+            return s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0
+                   ? s
+                   : '"' + s.replace("\"", "\"\"") + '"';
+        }
+
+        private static String json(String s) {
+            StringBuilder sb = new StringBuilder(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+    }
+
+}
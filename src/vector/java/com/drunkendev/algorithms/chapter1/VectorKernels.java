@@ -0,0 +1,404 @@
+/*
+ * VectorKernels.java    Oct 18 2026, 22:10
+ *
+ * Copyright (C) 2026 Drunken Dev.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.drunkendev.algorithms.chapter1;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * {@link Kernels} built on the incubating JDK Vector API, loaded
+ * reflectively by {@link Kernels#get()}.
+ *
+ * Blocks are sorted in register with a bitonic network of
+ * <code>log2(lanes)</code> stages, each a lane permute followed by a min, a
+ * max and a blend. Merges run the last stage of the same network over the
+ * smaller of the two next blocks and the carried over upper half. Partition
+ * compacts each vector through a table of shuffles indexed by the comparison
+ * mask, as the JDK 17 API has no compress operation, so it uses at most 8
+ * lanes to keep the table at 256 entries.
+ *
+ * Requires JDK 17 or later started with
+ * <code>--add-modules jdk.incubator.vector</code>.
+ *
+ * @author  Brett Ryan
+ */
+final class VectorKernels extends Kernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS_PARTITION
+            = INTS.length() > 8 ? IntVector.SPECIES_256 : INTS;
+    private static final VectorSpecies<Long> LONGS_PARTITION
+            = LONGS.length() > 8 ? LongVector.SPECIES_512 : LONGS;
+
+    private final Network<Integer> intNetwork = new Network<>(INTS);
+    private final Network<Long> longNetwork = new Network<>(LONGS);
+    private final VectorShuffle<Integer>[] intCompress = compressTable(INTS_PARTITION);
+    private final VectorShuffle<Long>[] longCompress = compressTable(LONGS_PARTITION);
+
+    @Override
+    String name() {
+        return "vector-" + INTS.vectorBitSize();
+    }
+
+    @Override
+    boolean isSorted(int[] a, int from, int to) {
+        int n = INTS.length();
+        int i = from;
+        for (; i + n < to; i += n) {
+            IntVector x = IntVector.fromArray(INTS, a, i);
+            IntVector y = IntVector.fromArray(INTS, a, i + 1);
+            if (y.compare(VectorOperators.LT, x).anyTrue()) {
+                return false;
+            }
+        }
+        for (i++; i < to; i++) {
+            if (a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    boolean isSorted(long[] a, int from, int to) {
+        int n = LONGS.length();
+        int i = from;
+        for (; i + n < to; i += n) {
+            LongVector x = LongVector.fromArray(LONGS, a, i);
+            LongVector y = LongVector.fromArray(LONGS, a, i + 1);
+            if (y.compare(VectorOperators.LT, x).anyTrue()) {
+                return false;
+            }
+        }
+        for (i++; i < to; i++) {
+            if (a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    int blockSize(int[] a) {
+        return INTS.length();
+    }
+
+    @Override
+    int blockSize(long[] a) {
+        return LONGS.length();
+    }
+
+    @Override
+    void sortBlocks(int[] a, int from, int to) {
+        int n = INTS.length();
+        int i = from;
+        for (; i + n <= to; i += n) {
+            IntVector v = IntVector.fromArray(INTS, a, i);
+            network(v, 0).intoArray(a, i);
+        }
+        Scalar.insertionSort(a, i, to);
+    }
+
+    @Override
+    void sortBlocks(long[] a, int from, int to) {
+        int n = LONGS.length();
+        int i = from;
+        for (; i + n <= to; i += n) {
+            LongVector v = LongVector.fromArray(LONGS, a, i);
+            network(v, 0).intoArray(a, i);
+        }
+        Scalar.insertionSort(a, i, to);
+    }
+
+    /**
+     * Applies the network steps from <code>step</code> on, from 0 sorts the
+     * vector and from {@link Network#merge} sorts a bitonic one.
+     */
+    private IntVector network(IntVector v, int step) {
+        Network<Integer> net = intNetwork;
+        for (int s = step; s < net.masks.length; s++) {
+            IntVector p = v.rearrange(net.shuffles[s]);
+            v = v.max(p).blend(v.min(p), net.masks[s]);
+        }
+        return v;
+    }
+
+    private LongVector network(LongVector v, int step) {
+        Network<Long> net = longNetwork;
+        for (int s = step; s < net.masks.length; s++) {
+            LongVector p = v.rearrange(net.shuffles[s]);
+            v = v.max(p).blend(v.min(p), net.masks[s]);
+        }
+        return v;
+    }
+
+    /**
+     * The block with the smaller head is loaded next and merged with the
+     * upper half carried in register, the lower half is then known to be
+     * final. When the next block would run past its run the carried half and
+     * both remainders are finished in scalar code.
+     */
+    @Override
+    void merge(int[] src, int from, int mid, int to, int[] dst) {
+        int n = INTS.length();
+        if (mid - from < n || to - mid < n) {
+            SCALAR.merge(src, from, mid, to, dst);
+            return;
+        }
+        Network<Integer> net = intNetwork;
+        int i = from + n;
+        int j = mid + n;
+        int k = from;
+        IntVector carry = IntVector.fromArray(INTS, src, from);
+        IntVector next = IntVector.fromArray(INTS, src, mid);
+        while (true) {
+            next = next.rearrange(net.reverse);
+            IntVector lo = network(carry.min(next), net.merge);
+            carry = network(carry.max(next), net.merge);
+            lo.intoArray(dst, k);
+            k += n;
+            if (i < mid && (j == to || src[i] <= src[j])) {
+                if (i + n > mid) {
+                    break;
+                }
+                next = IntVector.fromArray(INTS, src, i);
+                i += n;
+            } else if (j < to) {
+                if (j + n > to) {
+                    break;
+                }
+                next = IntVector.fromArray(INTS, src, j);
+                j += n;
+            } else {
+                break;
+            }
+        }
+        int[] rest = new int[n];
+        carry.intoArray(rest, 0);
+        int r = 0;
+        while (r < n) {
+            if (i < mid && src[i] < rest[r] && (j == to || src[i] <= src[j])) {
+                dst[k++] = src[i++];
+            } else if (j < to && src[j] < rest[r]) {
+                dst[k++] = src[j++];
+            } else {
+                dst[k++] = rest[r++];
+            }
+        }
+        while (i < mid && j < to) {
+            dst[k++] = src[j] < src[i] ? src[j++] : src[i++];
+        }
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, to - j);
+    }
+
+    @Override
+    void merge(long[] src, int from, int mid, int to, long[] dst) {
+        int n = LONGS.length();
+        if (mid - from < n || to - mid < n) {
+            SCALAR.merge(src, from, mid, to, dst);
+            return;
+        }
+        Network<Long> net = longNetwork;
+        int i = from + n;
+        int j = mid + n;
+        int k = from;
+        LongVector carry = LongVector.fromArray(LONGS, src, from);
+        LongVector next = LongVector.fromArray(LONGS, src, mid);
+        while (true) {
+            next = next.rearrange(net.reverse);
+            LongVector lo = network(carry.min(next), net.merge);
+            carry = network(carry.max(next), net.merge);
+            lo.intoArray(dst, k);
+            k += n;
+            if (i < mid && (j == to || src[i] <= src[j])) {
+                if (i + n > mid) {
+                    break;
+                }
+                next = LongVector.fromArray(LONGS, src, i);
+                i += n;
+            } else if (j < to) {
+                if (j + n > to) {
+                    break;
+                }
+                next = LongVector.fromArray(LONGS, src, j);
+                j += n;
+            } else {
+                break;
+            }
+        }
+        long[] rest = new long[n];
+        carry.intoArray(rest, 0);
+        int r = 0;
+        while (r < n) {
+            if (i < mid && src[i] < rest[r] && (j == to || src[i] <= src[j])) {
+                dst[k++] = src[i++];
+            } else if (j < to && src[j] < rest[r]) {
+                dst[k++] = src[j++];
+            } else {
+                dst[k++] = rest[r++];
+            }
+        }
+        while (i < mid && j < to) {
+            dst[k++] = src[j] < src[i] ? src[j++] : src[i++];
+        }
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, to - j);
+    }
+
+    /**
+     * Each vector is compacted twice, lanes less than the pivot to the
+     * front of <code>a</code> and the rest to <code>buf</code>, both full
+     * width stores whose unused lanes are overwritten by the next.
+     */
+    @Override
+    int partition(int[] a, int from, int to, int pivot, int[] buf) {
+        int n = INTS_PARTITION.length();
+        int all = (1 << n) - 1;
+        IntVector p = IntVector.broadcast(INTS_PARTITION, pivot);
+        int lo = from;
+        int hi = 0;
+        int i = from;
+        for (; i + n <= to; i += n) {
+            IntVector v = IntVector.fromArray(INTS_PARTITION, a, i);
+            int mask = (int) v.compare(VectorOperators.LT, p).toLong();
+            v.rearrange(intCompress[mask]).intoArray(a, lo);
+            v.rearrange(intCompress[~mask & all]).intoArray(buf, hi);
+            int less = Integer.bitCount(mask);
+            lo += less;
+            hi += n - less;
+        }
+        for (; i < to; i++) {
+            int x = a[i];
+            int less = x < pivot ? 1 : 0;
+            a[lo] = x;
+            buf[hi] = x;
+            lo += less;
+            hi += 1 - less;
+        }
+        System.arraycopy(buf, 0, a, lo, hi);
+        return lo;
+    }
+
+    @Override
+    int partition(long[] a, int from, int to, long pivot, long[] buf) {
+        int n = LONGS_PARTITION.length();
+        int all = (1 << n) - 1;
+        LongVector p = LongVector.broadcast(LONGS_PARTITION, pivot);
+        int lo = from;
+        int hi = 0;
+        int i = from;
+        for (; i + n <= to; i += n) {
+            LongVector v = LongVector.fromArray(LONGS_PARTITION, a, i);
+            int mask = (int) v.compare(VectorOperators.LT, p).toLong();
+            v.rearrange(longCompress[mask]).intoArray(a, lo);
+            v.rearrange(longCompress[~mask & all]).intoArray(buf, hi);
+            int less = Integer.bitCount(mask);
+            lo += less;
+            hi += n - less;
+        }
+        for (; i < to; i++) {
+            long x = a[i];
+            int less = x < pivot ? 1 : 0;
+            a[lo] = x;
+            buf[hi] = x;
+            lo += less;
+            hi += 1 - less;
+        }
+        System.arraycopy(buf, 0, a, lo, hi);
+        return lo;
+    }
+
+    /**
+     * Shuffle for each mask moving its set lanes to the front in order,
+     * followed by the clear lanes.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> VectorShuffle<E>[] compressTable(VectorSpecies<E> species) {
+        int n = species.length();
+        VectorShuffle<E>[] table = new VectorShuffle[1 << n];
+        for (int mask = 0; mask < table.length; mask++) {
+            int[] order = new int[n];
+            int k = 0;
+            for (int lane = 0; lane < n; lane++) {
+                if ((mask & (1 << lane)) != 0) {
+                    order[k++] = lane;
+                }
+            }
+            for (int lane = 0; lane < n; lane++) {
+                if ((mask & (1 << lane)) == 0) {
+                    order[k++] = lane;
+                }
+            }
+            table[mask] = VectorShuffle.fromArray(species, order, 0);
+        }
+        return table;
+    }
+
+
+    /**
+     * Steps of a bitonic sorting network over the lanes of one vector. Step
+     * <code>(k, j)</code> pairs lane <code>i</code> with <code>i ^ j</code>
+     * and keeps the minimum in the lanes selected by its mask.
+     */
+    private static final class Network<E> {
+
+        final VectorShuffle<E> reverse;
+        final VectorShuffle<E>[] shuffles;
+        final VectorMask<E>[] masks;
+
+        /** First step of the final stage which sorts a bitonic vector. */
+        final int merge;
+
+        @SuppressWarnings("unchecked")
+        Network(VectorSpecies<E> species) {
+            int n = species.length();
+            int log = Integer.numberOfTrailingZeros(n);
+            reverse = VectorShuffle.fromOp(species, i -> n - 1 - i);
+            shuffles = new VectorShuffle[log * (log + 1) / 2];
+            masks = new VectorMask[shuffles.length];
+            int s = 0;
+            int last = 0;
+            for (int k = 2; k <= n; k <<= 1) {
+                last = s;
+                for (int j = k >> 1; j > 0; j >>= 1) {
+                    long bits = 0;
+                    for (int i = 0; i < n; i++) {
+                        if (((i & j) == 0) == ((i & k) == 0)) {
+                            bits |= 1L << i;
+                        }
+                    }
+                    int stride = j;
+                    shuffles[s] = VectorShuffle.fromOp(species, i -> i ^ stride);
+                    masks[s++] = VectorMask.fromLong(species, bits);
+                }
+            }
+            merge = last;
+        }
+
+    }
+
+}